@@ -0,0 +1,155 @@
+package com.tersesystems.jmxmvc.examples.akka;
+
+import akka.actor.*;
+import org.slf4j.Logger;
+
+import java.util.*;
+
+/**
+ * Akka extension holding the set of actors that are visible through JMX.
+ *
+ * Actors opt in by extending {@link JmxVisibleActor}, which registers on start and
+ * unregisters on stop.  The registry also watches every member, so an actor that dies
+ * without running postStop is still removed.  Listeners are told about each change as it
+ * happens, so the cost of discovery follows churn rather than the size of the actor tree.
+ */
+public class ActorRegistry implements Extension {
+
+    public static final Id ID = new Id();
+
+    private final ActorRef registryActor;
+
+    ActorRegistry(ExtendedActorSystem system) {
+        this.registryActor = system.systemActorOf(Props.create(RegistryActor.class), "jmxRegistry");
+    }
+
+    public static ActorRegistry get(ActorSystem system) {
+        return ID.get(system);
+    }
+
+    public void register(ActorRef ref) {
+        registryActor.tell(new Register(ref), ref);
+    }
+
+    public void unregister(ActorRef ref) {
+        registryActor.tell(new Unregister(ref), ref);
+    }
+
+    /**
+     * Adds a listener.  The listener first receives a snapshot of the current members,
+     * then one call per change.  Calls are made from the registry actor, one at a time.
+     */
+    public void subscribe(Listener listener) {
+        registryActor.tell(new Subscribe(listener), ActorRef.noSender());
+    }
+
+    /**
+     * Sends the listener a fresh snapshot of the current members.
+     */
+    public void resync(Listener listener) {
+        registryActor.tell(new Resync(listener), ActorRef.noSender());
+    }
+
+    public void unsubscribe(Listener listener) {
+        registryActor.tell(new Unsubscribe(listener), ActorRef.noSender());
+    }
+
+    public interface Listener {
+        void snapshot(List<ActorRef> members);
+
+        void added(ActorRef ref);
+
+        void removed(ActorRef ref);
+    }
+
+    static class Id extends AbstractExtensionId<ActorRegistry> implements ExtensionIdProvider {
+        @Override
+        public Id lookup() {
+            return ID;
+        }
+
+        @Override
+        public ActorRegistry createExtension(ExtendedActorSystem system) {
+            return new ActorRegistry(system);
+        }
+    }
+
+    static final class Register {
+        final ActorRef ref;
+        Register(ActorRef ref) {
+            this.ref = ref;
+        }
+    }
+
+    static final class Unregister {
+        final ActorRef ref;
+        Unregister(ActorRef ref) {
+            this.ref = ref;
+        }
+    }
+
+    static final class Subscribe {
+        final Listener listener;
+        Subscribe(Listener listener) {
+            this.listener = listener;
+        }
+    }
+
+    static final class Resync {
+        final Listener listener;
+        Resync(Listener listener) {
+            this.listener = listener;
+        }
+    }
+
+    static final class Unsubscribe {
+        final Listener listener;
+        Unsubscribe(Listener listener) {
+            this.listener = listener;
+        }
+    }
+
+    static class RegistryActor extends AbstractActor {
+        private static final Logger logger = org.slf4j.LoggerFactory.getLogger(RegistryActor.class);
+
+        private final Set<ActorRef> members = new HashSet<>();
+        private final List<Listener> listeners = new ArrayList<>();
+
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder()
+                    .match(Register.class, r -> {
+                        if (members.add(r.ref)) {
+                            getContext().watch(r.ref);
+                            logger.debug("registered {}", r.ref);
+                            for (Listener listener : listeners) {
+                                listener.added(r.ref);
+                            }
+                        }
+                    }).match(Unregister.class, u -> {
+                        getContext().unwatch(u.ref);
+                        remove(u.ref);
+                    }).match(Terminated.class, t -> {
+                        remove(t.getActor());
+                    }).match(Subscribe.class, s -> {
+                        listeners.add(s.listener);
+                        s.listener.snapshot(new ArrayList<>(members));
+                    }).match(Resync.class, r -> {
+                        if (listeners.contains(r.listener)) {
+                            r.listener.snapshot(new ArrayList<>(members));
+                        }
+                    }).match(Unsubscribe.class, u -> {
+                        listeners.remove(u.listener);
+                    }).build();
+        }
+
+        private void remove(ActorRef ref) {
+            if (members.remove(ref)) {
+                logger.debug("unregistered {}", ref);
+                for (Listener listener : listeners) {
+                    listener.removed(ref);
+                }
+            }
+        }
+    }
+}
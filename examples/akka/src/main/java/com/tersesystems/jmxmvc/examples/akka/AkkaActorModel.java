@@ -1,113 +1,221 @@
 package com.tersesystems.jmxmvc.examples.akka;
 
 import akka.actor.*;
-import akka.japi.pf.ReceiveBuilder;
 import akka.util.Timeout;
 import com.tersesystems.jmxmvc.model.AbstractModel;
+import com.tersesystems.jmxmvc.model.AsyncModel;
 import com.tersesystems.jmxmvc.model.ModelItem;
+import com.tersesystems.jmxmvc.model.NotificationDispatcher;
+import com.tersesystems.jmxmvc.model.StacklessInstanceNotFoundException;
+import com.tersesystems.jmxmvc.model.TimeoutPolicy;
+import com.tersesystems.jmxmvc.model.TypeInfo;
 import org.slf4j.Logger;
-import scala.concurrent.Await;
-import scala.concurrent.Future;
-import scala.concurrent.duration.FiniteDuration;
 
 import javax.management.*;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Consumer;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static javax.management.MBeanServerNotification.REGISTRATION_NOTIFICATION;
 import static javax.management.MBeanServerNotification.UNREGISTRATION_NOTIFICATION;
 
 interface ModelItemFactory<T> {
-    ModelItem create(ObjectName name, ObjectInstance objectInstance, MBeanInfo beanInfo, T element);
+    ModelItem create(ObjectName name, ObjectInstance objectInstance, TypeInfo typeInfo, T element);
 }
 
 interface MBeanInfoFactory<T> {
     MBeanInfo create(T element);
 }
 
-public class AkkaActorModel extends AbstractModel<ActorRef> {
+public class AkkaActorModel extends AbstractModel<ActorRef> implements AsyncModel {
     private static final Logger logger = org.slf4j.LoggerFactory.getLogger(AkkaActorModel.class);
 
     private static final String AkkaActorModel = "VirtualActorSystem";
-    private final ActorRef actorRef;
     private final ModelItemFactory<ActorRef> itemFactory;
     private final MBeanInfoFactory<ActorRef> beanInfoFactory;
-    private MBeanServerDelegate delegate;
+    private volatile NotificationDispatcher dispatcher;
 
     private boolean running = false;
 
+    private final TimeoutPolicy timeoutPolicy = TimeoutPolicy.ofMillis(1000L);
+
     private ActorSystem system;
-    private CopyOnWriteArrayList<ActorRef> jmxVisibleActors = new CopyOnWriteArrayList<>();
+
+    // Resolve names the registry has not reported yet with actorSelection.
+    private volatile boolean resolveFallback = false;
+
+    // Registrations past this many actors are ignored, so a runaway actor system cannot
+    // grow the index without bound.
+    private volatile int maxActors = 100000;
+
+    private final ActorRegistry.Listener registryListener = new ActorRegistry.Listener() {
+        @Override
+        public void snapshot(List<ActorRef> members) {
+            refresh(members);
+        }
+
+        @Override
+        public void added(ActorRef ref) {
+            ObjectName name = index(ref);
+            if (name != null) {
+                logger.debug("Added ref {}", ref);
+                dispatcher.submit(REGISTRATION_NOTIFICATION, name);
+            }
+        }
+
+        @Override
+        public void removed(ActorRef ref) {
+            ObjectName name = removeFromIndex(ref);
+            if (name != null) {
+                logger.debug("Removed ref {}", ref);
+                dispatcher.submit(UNREGISTRATION_NOTIFICATION, name);
+            }
+        }
+    };
 
     public AkkaActorModel(String domain,
                           ActorSystem system,
-                          ActorRef actorRef,
                           MBeanInfoFactory<ActorRef> beanInfoFactory,
                           ModelItemFactory<ActorRef> itemFactory) {
-        super(domain);
+        super(domain, true);
         this.system = system;
-        this.actorRef = actorRef;
         this.itemFactory = itemFactory;
         this.beanInfoFactory = beanInfoFactory;
     }
 
     @Override
     public void start(MBeanServerDelegate delegate) throws Exception {
-        // Get the children of the actor
         running = true;
-        this.delegate = delegate;
-
-        Consumer<ActorRef> addFunction = (ref) -> logger.info("Added ref {}", ref);
-        Consumer<ActorRef> removeFunction = (ref) -> logger.info("Removed ref {}", ref);
-        Consumer<List<ActorRef>> refreshFunction = this::refresh;
-        String rootPath = "/user/" + actorRef.path().name() + "/*";
-        system.actorOf(Props.create(SpyActor.class, rootPath, addFunction, removeFunction, refreshFunction), "spyActor");
+        // Listeners run on the dispatcher thread rather than the registry actor, and short lived
+        // actors that come and go within 100 ms are never announced as registered.
+        this.dispatcher = new NotificationDispatcher(delegate, NotificationDispatcher.DEFAULT_CAPACITY, 100, TimeUnit.MILLISECONDS);
 
-        jmxVisibleActors.add(actorRef);
-        List<MBeanServerNotification> list = generateNotifications(REGISTRATION_NOTIFICATION, actorNames(jmxVisibleActors));
-        sendNotifications(list);
+        // Actors that extend JmxVisibleActor report themselves; the registry pushes the
+        // current members and then every change.
+        ActorRegistry.get(system).subscribe(registryListener);
     }
 
     @Override
     public void stop() throws Exception {
-        List<MBeanServerNotification> list = generateNotifications(UNREGISTRATION_NOTIFICATION, actorNames(jmxVisibleActors));
-        sendNotifications(list);
+        ActorRegistry.get(system).unsubscribe(registryListener);
+        dispatcher.submitAll(UNREGISTRATION_NOTIFICATION, actorNames(index.getElements()));
+        dispatcher.close();
+        index.clear();
         running = false;
     }
 
+    public NotificationDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
     @Override
     public boolean isRunning() {
         return running;
     }
 
+    /**
+     * If true, names that are not in the index are resolved through actorSelection.  This
+     * costs a round trip to the actor system, and finds actors that never registered.
+     */
+    public void setResolveFallback(boolean resolveFallback) {
+        this.resolveFallback = resolveFallback;
+    }
+
+    public boolean isResolveFallback() {
+        return resolveFallback;
+    }
+
+    /**
+     * Asks the registry for its current members and announces whatever changed since the
+     * last snapshot.
+     */
+    public void resync() {
+        ActorRegistry.get(system).resync(registryListener);
+    }
+
+    public void setMaxActors(int maxActors) {
+        if (maxActors < 1) {
+            throw new IllegalArgumentException("maxActors must be positive: " + maxActors);
+        }
+        this.maxActors = maxActors;
+    }
+
+    public int getMaxActors() {
+        return maxActors;
+    }
+
+    @Override
+    public TimeoutPolicy getTimeoutPolicy() {
+        return timeoutPolicy;
+    }
+
     @Override
-    public ModelItem getItem(ObjectName name) throws InstanceNotFoundException {
-        logger.trace("getItem: name = {}", name);
+    public CompletionStage<ModelItem> getItemAsync(ObjectName name) {
+        logger.trace("getItemAsync: name = {}", name);
 
         if (!isRunning()) {
-            logger.error("getItem: model is not running!");
-            throw new InstanceNotFoundException(name + ": MBean not found.");
+            logger.error("getItemAsync: model is not running!");
+            return notFound(name);
         }
 
-        if (name.getDomain().equals(getDefaultDomain())) {
-            try {
-                ActorRef ref = findFromName(name).orElseThrow(() -> new InstanceNotFoundException(name + ": MBean not found."));
-                ObjectInstance objectInstance = generateObjectInstance(name, ref);
-                MBeanInfo beanInfo = generateMBeanInfo(ref);
-                return itemFactory.create(name, objectInstance, beanInfo, ref);
-            } catch (Exception e) {
-                logger.error("getItem", e);
-                throw e;
+        if (!name.getDomain().equals(getDefaultDomain())) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        ActorRef ref = index.getElement(name);
+        if (ref != null) {
+            return CompletableFuture.completedFuture(createItem(name, ref));
+        }
+        if (!resolveFallback) {
+            return notFound(name);
+        }
+
+        return findFromName(name).thenCompose(optionalRef -> {
+            if (!optionalRef.isPresent()) {
+                return notFound(name);
             }
-        } else {
-            return null;
+            return CompletableFuture.completedFuture(createItem(name, optionalRef.get()));
+        });
+    }
+
+    /**
+     * Answers as {@link #getItemAsync(ObjectName)} would, so that isRegistered agrees with
+     * getAttribute: with the resolve fallback on, a name missing from the index is looked up with
+     * actorSelection, waiting at most as long as the timeout policy allows.
+     */
+    @Override
+    public boolean contains(ObjectName name) {
+        if (!isRunning() || !name.getDomain().equals(getDefaultDomain())) {
+            return false;
+        }
+        if (index.contains(name)) {
+            return true;
+        }
+        if (!resolveFallback) {
+            return false;
+        }
+        try {
+            return timeoutPolicy.await(findFromName(name)).isPresent();
+        } catch (Exception e) {
+            logger.debug("contains: cannot resolve " + name, e);
+            return false;
         }
     }
 
+    @Override
+    protected ModelItem createItem(ObjectName name, ActorRef ref) {
+        ObjectInstance objectInstance = generateObjectInstance(name, ref);
+        return itemFactory.create(name, objectInstance, getTypeInfo(ref), ref);
+    }
+
+    private static CompletionStage<ModelItem> notFound(ObjectName name) {
+        CompletableFuture<ModelItem> future = new CompletableFuture<>();
+        future.completeExceptionally(StacklessInstanceNotFoundException.of(name));
+        return future;
+    }
+
     @Override
     protected MBeanInfo generateMBeanInfo(ActorRef actorRef) {
         return beanInfoFactory.create(actorRef);
@@ -118,19 +226,15 @@ public class AkkaActorModel extends AbstractModel<ActorRef> {
         return AkkaActorModel;
     }
 
+    // Every actor has the same shape, so the factory runs once.
     @Override
-    public Integer getMBeanCount() {
-        return jmxVisibleActors.size();
-    }
-
-    @Override
-    public Set<ObjectName> queryNames(ObjectName name, Function<ObjectName, Boolean> queryFunction) {
-        return new NameQuery(name, () -> jmxVisibleActors, queryFunction).getResults();
+    protected Object getTypeKey(ActorRef actorRef) {
+        return AkkaActorModel;
     }
 
     @Override
-    public Set<ObjectInstance> queryMBeans(ObjectName name, Function<ObjectName, Boolean> queryFunction) {
-        return new MBeanQuery(name, () -> jmxVisibleActors, queryFunction).getResults();
+    public Integer getMBeanCount() {
+        return index.size();
     }
 
     @Override
@@ -143,24 +247,53 @@ public class AkkaActorModel extends AbstractModel<ActorRef> {
         return keys;
     }
 
-    private void refresh(List<ActorRef> childrenList) {
-        int added = jmxVisibleActors.addAllAbsent(childrenList);
-        if (added > 0) {
-            logger.info("refresh: updating JMX list of actors, added = {}", added);
-            List<MBeanServerNotification> list = generateNotifications(REGISTRATION_NOTIFICATION, actorNames(jmxVisibleActors));
-            for (MBeanServerNotification notification : list) {
-                delegate.sendNotification(notification);
-            };
+    // Brings the index in line with the registry's members and announces only the difference.
+    private void refresh(List<ActorRef> members) {
+        Set<ActorRef> current = new HashSet<>(members);
+
+        List<ObjectName> removed = new ArrayList<>();
+        for (ActorRef ref : index.getElements()) {
+            if (!current.contains(ref)) {
+                ObjectName name = removeFromIndex(ref);
+                if (name != null) {
+                    removed.add(name);
+                }
+            }
+        }
+
+        List<ObjectName> added = new ArrayList<>();
+        for (ActorRef ref : current) {
+            ObjectName name = index(ref);
+            if (name != null) {
+                added.add(name);
+            }
+        }
+
+        if (!removed.isEmpty() || !added.isEmpty()) {
+            logger.info("refresh: added = {}, removed = {}", added.size(), removed.size());
+            dispatcher.submitAll(UNREGISTRATION_NOTIFICATION, removed);
+            dispatcher.submitAll(REGISTRATION_NOTIFICATION, added);
         }
     }
 
-    private void sendNotifications(Iterable<MBeanServerNotification> notificationList) {
-        for (MBeanServerNotification notification : notificationList) {
-            delegate.sendNotification(notification);
+    // Returns the new name, or null if the actor was already indexed or could not be added.
+    private ObjectName index(ActorRef ref) {
+        if (index.getName(ref) != null) {
+            return null;
+        }
+        if (index.size() >= maxActors) {
+            logger.warn("Not exposing {}: already tracking {} actors", ref, maxActors);
+            return null;
+        }
+        try {
+            return addToIndex(ref);
+        } catch (MalformedObjectNameException e) {
+            logger.error("Cannot generate name", e);
+            return null;
         }
     }
 
-    private List<ObjectName> actorNames(List<ActorRef> list) {
+    private List<ObjectName> actorNames(Collection<ActorRef> list) {
         return list.stream().filter(Objects::nonNull).map(actorRef -> {
             try {
                 return generateObjectName(actorRef);
@@ -168,84 +301,24 @@ public class AkkaActorModel extends AbstractModel<ActorRef> {
                 logger.error("Cannot generate name", e);
                 return null;
             }
-        }).collect(Collectors.toList());
+        }).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
-    private Optional<ActorRef> findFromName(ObjectName objectName) {
+    private CompletionStage<Optional<ActorRef>> findFromName(ObjectName objectName) {
         // https://doc.akka.io/docs/akka/2.5.5/java/actors.html#identifying-actors-via-actor-selection
         String type = objectName.getKeyProperty("type");
         String name = objectName.getKeyProperty("name");
-        String path = type + "/" + name;
-        if (path == null) {
-            return Optional.empty();
-        }
-
-        ActorRef result = null;
-        try {
-            Timeout timeout = Timeout.apply(1, TimeUnit.SECONDS);
-            Future<ActorRef> actorRefFuture = system.actorSelection(path).resolveOne(timeout);
-            result = Await.result(actorRefFuture, timeout.duration());
-        } catch (Exception e) {
-            logger.error(String.format("Cannot resolve path %s", path), e);
+        if (type == null || name == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
         }
-        return Optional.ofNullable(result);
-    }
-
-    static class Refresh {
-        static final String key = "REFRESH_KEY";
-        static final Refresh instance = new Refresh();
-        private Refresh() {}
-    }
-
-    // watches for children and termination of children
-    static class SpyActor extends AbstractActorWithTimers {
-        private final String path;
-        private final Consumer<ActorRef> addFunction;
-        private final Consumer<ActorRef> removeFunction;
-        private final Consumer<List<ActorRef>> refreshFunction;
-        private final CopyOnWriteArrayList<ActorRef> children;
 
-        public SpyActor(String path, Consumer<ActorRef> addFunction, Consumer<ActorRef> removeFunction, Consumer<List<ActorRef>> refreshFunction) {
-            this.path = path;
-            this.addFunction = addFunction;
-            this.removeFunction = removeFunction;
-            this.refreshFunction = refreshFunction;
-            this.children = new CopyOnWriteArrayList<>();
-        }
-
-        @Override
-        public void preStart() {
-            getTimers().startPeriodicTimer(Refresh.key, Refresh.instance, FiniteDuration.create(1, TimeUnit.SECONDS));
-        }
-
-        public void findChildren(String path) {
-            String correlationId = UUID.randomUUID().toString();
-            ActorSelection allChildren = getContext().getSystem().actorSelection(path);
-            allChildren.tell(Identify.apply(correlationId), self());
-        }
-
-        @Override
-        public Receive createReceive() {
-            return ReceiveBuilder.create().match(Refresh.class, r -> {
-                findChildren(path);
-                refreshFunction.accept(children);
-            }).match(ActorIdentity.class, a -> {
-                a.getActorRef().map(ref -> {
-                    // Do a recursive search...
-                    findChildren(ref.path().toStringWithoutAddress() + "/*");
-                    if (children.addIfAbsent(ref)) {
-                        logger.info("added {}, ref = {}", a.correlationId(), ref);
-                        addFunction.accept(ref);
-                    }
-                    return ref;
-                });
-            }).match(Terminated.class, t -> {
-                ActorRef ref = t.getActor();
-                if (children.remove(ref)) {
-                    logger.info("Removing ref = {}", ref);
-                    removeFunction.accept(t.getActor());
-                }
-            }).build();
-        }
+        String path = type + "/" + name;
+        Timeout timeout = Timeout.apply(timeoutPolicy.getTimeout(), timeoutPolicy.getUnit());
+        return system.actorSelection(path).resolveOneCS(timeout).handle((ref, e) -> {
+            if (e != null) {
+                logger.error(String.format("Cannot resolve path %s", path), e);
+            }
+            return Optional.ofNullable(ref);
+        });
     }
 }
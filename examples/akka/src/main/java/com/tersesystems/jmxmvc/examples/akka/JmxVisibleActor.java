@@ -0,0 +1,22 @@
+package com.tersesystems.jmxmvc.examples.akka;
+
+import akka.actor.AbstractActor;
+
+/**
+ * Base class for actors that should show up in JMX.  Registers with the
+ * {@link ActorRegistry} on start and unregisters on stop.
+ */
+public abstract class JmxVisibleActor extends AbstractActor {
+
+    @Override
+    public void preStart() throws Exception {
+        super.preStart();
+        ActorRegistry.get(getContext().getSystem()).register(getSelf());
+    }
+
+    @Override
+    public void postStop() throws Exception {
+        ActorRegistry.get(getContext().getSystem()).unregister(getSelf());
+        super.postStop();
+    }
+}
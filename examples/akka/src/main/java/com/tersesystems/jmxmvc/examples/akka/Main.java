@@ -5,22 +5,25 @@ import akka.event.LoggingAdapter;
 
 import akka.event.Logging;
 import com.tersesystems.jmxmvc.model.AbstractModelItem;
-import com.tersesystems.jmxmvc.model.ModelItem;
+import com.tersesystems.jmxmvc.model.AsyncModelItem;
+import com.tersesystems.jmxmvc.model.TypeInfo;
+import com.tersesystems.jmxmvc.view.AttributeValueCache;
+import com.tersesystems.jmxmvc.view.BoundedModelItemCache;
+import com.tersesystems.jmxmvc.view.InterceptorMetrics;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import com.tersesystems.jmxmvc.view.ViewInterceptor;
 import com.tersesystems.jmxmvc.view.ViewInterceptorBuilder;
 import org.slf4j.Logger;
-import scala.concurrent.Await;
-import scala.concurrent.Future;
-import scala.concurrent.duration.Duration;
 
 import javax.management.*;
 import java.lang.management.ManagementFactory;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 
-import static akka.pattern.Patterns.ask;
+import static akka.pattern.PatternsCS.ask;
 
 public class Main {
 
@@ -38,26 +41,78 @@ public class Main {
         }
     }
 
-    static class TestActor extends AbstractActor {
+    // Asks for several attributes in one round trip, answered with a Map<String, Object>.
+    static final class QueryAttributes {
+        private final String[] attributes;
+        public QueryAttributes(String[] attributes) {
+            this.attributes = attributes;
+        }
+    }
+
+    static final class SetThrottle {
+        private final int throttle;
+        public SetThrottle(int throttle) {
+            this.throttle = throttle;
+        }
+    }
+
+    static class TestActor extends JmxVisibleActor {
         private final LoggingAdapter log = Logging.getLogger(getContext().getSystem(), this);
 
+        private int throttle = 0;
+        private long windowStart = System.nanoTime();
+        private int processed = 0;
+
         @Override
         public Receive createReceive() {
             return receiveBuilder()
                     .match(String.class, s -> {
-                        log.info("Received String message: {}", s);
+                        if (admit()) {
+                            log.info("Received String message: {}", s);
+                        } else {
+                            log.debug("Throttled String message: {}", s);
+                        }
                     }).match(QueryChildren.class, c -> {
                         queryChildren();
+                    }).match(QueryAttributes.class, q -> {
+                        queryAttributes(q);
                     }).match(CreateChild.class, c -> {
                         createChild(c);
+                    }).match(SetThrottle.class, t -> {
+                        throttle = t.throttle;
                     })
                     .build();
         }
 
+        // At most throttle String messages are processed in each one second window; the rest are dropped.
+        boolean admit() {
+            if (throttle <= 0) {
+                return true;
+            }
+            final long now = System.nanoTime();
+            if (now - windowStart >= TimeUnit.SECONDS.toNanos(1)) {
+                windowStart = now;
+                processed = 0;
+            }
+            return ++processed <= throttle;
+        }
+
         void queryChildren() {
             sender().tell(context().children().size(), self());
         }
 
+        void queryAttributes(QueryAttributes q) {
+            Map<String, Object> values = new HashMap<>();
+            for (String attribute : q.attributes) {
+                if ("children".equals(attribute)) {
+                    values.put(attribute, context().children().size());
+                } else if ("throttle".equals(attribute)) {
+                    values.put(attribute, throttle);
+                }
+            }
+            sender().tell(values, self());
+        }
+
         void createChild(CreateChild c) {
             ActorRef actorRef = context().actorOf(Props.create(TestActor.class), c.name);
             sender().tell(actorRef, self());
@@ -65,60 +120,90 @@ public class Main {
 
     }
 
-    static class ActorModelItem extends AbstractModelItem<ActorRef> {
+    static class ActorModelItem extends AbstractModelItem<ActorRef> implements AsyncModelItem {
         private static final Logger logger = org.slf4j.LoggerFactory.getLogger(AkkaActorModel.class);
 
-        ActorModelItem(ObjectName objectName, ObjectInstance objectInstance, MBeanInfo mBeanInfo, ActorRef actor) {
-            super(objectName, objectInstance, mBeanInfo, actor);
+        private static final long timeout = 1000L;
+
+        ActorModelItem(ObjectName objectName, ObjectInstance objectInstance, TypeInfo typeInfo, ActorRef actor) {
+            super(objectName, objectInstance, typeInfo, actor);
         }
 
         @Override
-        public Object invoke(String operationName, Object[] params, String[] signature) throws Exception {
-            logger.debug("invoke: operationName = {}", operationName);
-            long timeout = 1000L;
+        public CompletionStage<Object> invokeAsync(String operationName, Object[] params, String[] signature) {
+            logger.debug("invokeAsync: operationName = {}", operationName);
             if ("createChild".equals(operationName)) {
                 String name = UUID.randomUUID().toString();
-                ActorRef newChildRef = (ActorRef) await(ask(element, new CreateChild(name), timeout));
-                return newChildRef.path().toStringWithoutAddress();
+                return ask(element, new CreateChild(name), timeout)
+                        .thenApply(newChildRef -> (Object) ((ActorRef) newChildRef).path().toStringWithoutAddress());
             }
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
 
-        /*
-        List<MBeanServerNotification> list =
-                generateNotifications(MBeanServerNotification.REGISTRATION_NOTIFICATION, actorNames(Collections.singletonList(newChildRef)));
-        sendNotifications(list);
-         */
+        @Override
+        public CompletionStage<Object> getAttributeAsync(String attribute) {
+            logger.debug("getAttributeAsync: attribute = {}", attribute);
+            switch (attribute) {
+                case "path":
+                    return CompletableFuture.completedFuture(getPath());
+                case "children":
+                    return ask(element, QueryChildren.instance, timeout);
+                case "throttle":
+                    return ask(element, new QueryAttributes(new String[]{ attribute }), timeout)
+                            .thenApply(values -> ((Map<?, ?>) values).get(attribute));
+                default:
+                    return CompletableFuture.completedFuture(null);
+            }
+        }
 
+        // Path is known locally; everything else the actor answers in a single ask.
         @Override
-        public Object getAttribute(String attribute) {
-            logger.debug("getAttribute: attribute = {}", attribute);
-            try {
-                switch (attribute) {
-                    case "path":
-                        return getPath();
-                    case "children":
-                        return getChildren();
-                    default:
-                        return null;
+        @SuppressWarnings("unchecked")
+        public CompletionStage<AttributeList> getAttributesAsync(String[] attributes) {
+            logger.debug("getAttributesAsync: attributes = {}", Arrays.toString(attributes));
+            final AttributeList list = new AttributeList(attributes.length);
+            final List<String> remote = new ArrayList<>();
+            for (String attribute : attributes) {
+                if ("path".equals(attribute)) {
+                    list.add(new Attribute(attribute, getPath()));
+                } else {
+                    remote.add(attribute);
                 }
-            } catch (Exception e) {
-                throw new RuntimeException(e);
             }
-        }
+            if (remote.isEmpty()) {
+                return CompletableFuture.completedFuture(list);
+            }
 
-        String getPath() {
-            return element.path().toStringWithoutAddress();
+            QueryAttributes query = new QueryAttributes(remote.toArray(new String[0]));
+            return ask(element, query, timeout).handle((reply, e) -> {
+                if (e != null) {
+                    logger.error("getAttributesAsync: cannot query actor " + element, e);
+                    return list;
+                }
+                Map<String, Object> values = (Map<String, Object>) reply;
+                for (String attribute : remote) {
+                    if (values.containsKey(attribute)) {
+                        list.add(new Attribute(attribute, values.get(attribute)));
+                    }
+                }
+                return list;
+            });
         }
 
-        Integer getChildren() throws Exception {
-            long timeout = 1000L;
-            return (Integer) await(ask(element, QueryChildren.instance, timeout));
+        // Fire and forget: the actor applies the setting when it next processes its mailbox.
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException, InvalidAttributeValueException {
+            if (!"throttle".equals(attribute.getName())) {
+                throw new AttributeNotFoundException(attribute.getName() + " not accessible");
+            }
+            if (!(attribute.getValue() instanceof Integer) || (Integer) attribute.getValue() < 0) {
+                throw new InvalidAttributeValueException("throttle must be a non-negative Integer");
+            }
+            element.tell(new SetThrottle((Integer) attribute.getValue()), ActorRef.noSender());
         }
 
-        <F> F await(Future<F> future) throws Exception {
-            long timeout = 1000L;
-            return Await.result(future, Duration.create(timeout, TimeUnit.MILLISECONDS));
+        String getPath() {
+            return element.path().toStringWithoutAddress();
         }
     }
 
@@ -129,9 +214,15 @@ public class Main {
                     "Absolute path of the actor",
                     true, false, false);
 
+            // Every read of children asks the actor, so dashboards polling it share one read a second.
             final MBeanAttributeInfo childrenAttribute = new MBeanAttributeInfo("children", "integer",
                     "Number of Children",
-                    true, false, false);
+                    true, false, false,
+                    new ImmutableDescriptor(AttributeValueCache.MAX_AGE + "=1000"));
+
+            final MBeanAttributeInfo throttleAttribute = new MBeanAttributeInfo("throttle", "java.lang.Integer",
+                    "String messages per second this actor will process, or 0 for no limit; the rest are dropped",
+                    true, true, false);
 
             final MBeanOperationInfo createChildOperation = new MBeanOperationInfo("createChild",
                     "Create a child of this actor",
@@ -141,7 +232,7 @@ public class Main {
 
             return new MBeanInfo("actor",
                     "An MBean representing an Actor",
-                    new MBeanAttributeInfo[]{ pathAttribute, childrenAttribute },
+                    new MBeanAttributeInfo[]{ pathAttribute, childrenAttribute, throttleAttribute },
                     null,
                     new MBeanOperationInfo[] { createChildOperation },
                     null);
@@ -151,15 +242,21 @@ public class Main {
         // Start up the actor system
         Config config = ConfigFactory.parseString("").withFallback(ConfigFactory.load());
         final ActorSystem system = ActorSystem.create("ActorSystem", config);
-        final ActorRef testActorRef = system.actorOf(Props.create(TestActor.class), "testActor");
+        system.actorOf(Props.create(TestActor.class), "testActor");
 
         // Start up the akka actor model.
         final String domain = system.name();
-        final AkkaActorModel model = new AkkaActorModel(domain, system, testActorRef, beanInfoFactory, modelItemFactory);
+        final AkkaActorModel model = new AkkaActorModel(domain, system, beanInfoFactory, modelItemFactory);
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        final InterceptorMetrics metrics = new InterceptorMetrics();
         final ViewInterceptor interceptor = new ViewInterceptorBuilder()
-                .withMBeanServer(ManagementFactory.getPlatformMBeanServer())
+                .withMBeanServer(mBeanServer)
                 .withModel(model)
+                .withItemCache(new BoundedModelItemCache(10000, 10, TimeUnit.SECONDS))
+                .withListener(metrics)
+                .withValueCache(new AttributeValueCache())
                 .build();
         interceptor.start();
+        metrics.register(mBeanServer, domain);
     }
 }
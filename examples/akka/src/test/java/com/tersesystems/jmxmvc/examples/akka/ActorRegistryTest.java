@@ -0,0 +1,158 @@
+package com.tersesystems.jmxmvc.examples.akka;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.testkit.javadsl.TestKit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class ActorRegistryTest {
+
+    // Echoes every message, so a test can tell when it has started.
+    public static class VisibleActor extends JmxVisibleActor {
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder().matchAny(message -> getSender().tell(message, getSelf())).build();
+        }
+    }
+
+    public static class PlainActor extends AbstractActor {
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder().matchAny(message -> { }).build();
+        }
+    }
+
+    /**
+     * Tells the probe about every call, as a list of the call's name and argument.
+     */
+    static final class ProbeListener implements ActorRegistry.Listener {
+        private final ActorRef probe;
+
+        ProbeListener(ActorRef probe) {
+            this.probe = probe;
+        }
+
+        @Override
+        public void snapshot(List<ActorRef> members) {
+            probe.tell(Arrays.asList("snapshot", new HashSet<>(members)), ActorRef.noSender());
+        }
+
+        @Override
+        public void added(ActorRef ref) {
+            probe.tell(Arrays.asList("added", ref), ActorRef.noSender());
+        }
+
+        @Override
+        public void removed(ActorRef ref) {
+            probe.tell(Arrays.asList("removed", ref), ActorRef.noSender());
+        }
+    }
+
+    private ActorSystem system;
+
+    @BeforeEach
+    public void setup() {
+        system = ActorSystem.create();
+    }
+
+    @AfterEach
+    public void teardown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @Test
+    public void subscriberGetsSnapshotThenChanges() {
+        new TestKit(system) {{
+            final ActorRegistry registry = ActorRegistry.get(system);
+            registry.subscribe(new ProbeListener(getRef()));
+            expectMsg(Arrays.asList("snapshot", Collections.emptySet()));
+
+            final ActorRef visible = system.actorOf(Props.create(VisibleActor.class), "visible");
+            expectMsg(Arrays.asList("added", visible));
+
+            watch(visible);
+            system.stop(visible);
+            expectTerminated(visible);
+            expectMsg(Arrays.asList("removed", visible));
+        }};
+    }
+
+    @Test
+    public void lateSubscriberSeesCurrentMembers() {
+        new TestKit(system) {{
+            final ActorRegistry registry = ActorRegistry.get(system);
+            registry.subscribe(new ProbeListener(getRef()));
+            expectMsg(Arrays.asList("snapshot", Collections.emptySet()));
+            final ActorRef visible = system.actorOf(Props.create(VisibleActor.class), "visible");
+            expectMsg(Arrays.asList("added", visible));
+
+            final TestKit late = new TestKit(system);
+            registry.subscribe(new ProbeListener(late.getRef()));
+            late.expectMsg(Arrays.asList("snapshot", Collections.singleton(visible)));
+        }};
+    }
+
+    @Test
+    public void watchedMembersAreRemovedWhenTheyDie() {
+        new TestKit(system) {{
+            final ActorRegistry registry = ActorRegistry.get(system);
+            registry.subscribe(new ProbeListener(getRef()));
+            expectMsg(Arrays.asList("snapshot", Collections.emptySet()));
+
+            // A plain actor never unregisters itself; the registry notices its death.
+            final ActorRef plain = system.actorOf(Props.create(PlainActor.class), "plain");
+            registry.register(plain);
+            expectMsg(Arrays.asList("added", plain));
+            system.stop(plain);
+            expectMsg(Arrays.asList("removed", plain));
+        }};
+    }
+
+    @Test
+    public void duplicateRegistrationsAreIgnored() {
+        new TestKit(system) {{
+            final ActorRegistry registry = ActorRegistry.get(system);
+            registry.subscribe(new ProbeListener(getRef()));
+            expectMsg(Arrays.asList("snapshot", Collections.emptySet()));
+
+            final ActorRef plain = system.actorOf(Props.create(PlainActor.class), "plain");
+            registry.register(plain);
+            registry.register(plain);
+            expectMsg(Arrays.asList("added", plain));
+            registry.unregister(plain);
+            registry.unregister(plain);
+            expectMsg(Arrays.asList("removed", plain));
+            expectNoMessage();
+        }};
+    }
+
+    @Test
+    public void resyncAndUnsubscribe() {
+        new TestKit(system) {{
+            final ActorRegistry registry = ActorRegistry.get(system);
+            final ProbeListener listener = new ProbeListener(getRef());
+            registry.subscribe(listener);
+            expectMsg(Arrays.asList("snapshot", Collections.emptySet()));
+            final ActorRef visible = system.actorOf(Props.create(VisibleActor.class), "visible");
+            expectMsg(Arrays.asList("added", visible));
+
+            registry.resync(listener);
+            expectMsg(Arrays.asList("snapshot", Collections.singleton(visible)));
+
+            registry.unsubscribe(listener);
+            system.actorOf(Props.create(VisibleActor.class), "other");
+            registry.resync(listener);
+            expectNoMessage();
+        }};
+    }
+}
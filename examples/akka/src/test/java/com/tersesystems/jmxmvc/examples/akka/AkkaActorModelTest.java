@@ -0,0 +1,214 @@
+package com.tersesystems.jmxmvc.examples.akka;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.testkit.javadsl.TestKit;
+import com.tersesystems.jmxmvc.model.ModelItem;
+import com.tersesystems.jmxmvc.model.StacklessInstanceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerNotification;
+import javax.management.ObjectName;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static javax.management.MBeanServerNotification.REGISTRATION_NOTIFICATION;
+import static javax.management.MBeanServerNotification.UNREGISTRATION_NOTIFICATION;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AkkaActorModelTest {
+
+    private ActorSystem system;
+    private MBeanServerDelegate delegate;
+    private AkkaActorModel model;
+
+    @BeforeEach
+    public void setup() {
+        system = ActorSystem.create();
+        delegate = new MBeanServerDelegate();
+        model = new AkkaActorModel("actors", system,
+                element -> new MBeanInfo("actor", "An actor", null, null, null, null),
+                Main.ActorModelItem::new);
+    }
+
+    @AfterEach
+    public void teardown() throws Exception {
+        if (model.isRunning()) {
+            model.stop();
+        }
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @Test
+    public void looksUpRegisteredActorsByName() throws Exception {
+        new TestKit(system) {{
+            listen(getRef());
+            model.start(delegate);
+            final ActorRef visible = system.actorOf(Props.create(ActorRegistryTest.VisibleActor.class), "visible");
+            final ObjectName name = model.generateObjectName(visible);
+            expectMsg(Arrays.asList(REGISTRATION_NOTIFICATION, name));
+
+            final ModelItem item = model.getItemAsync(name).toCompletableFuture().get(1, TimeUnit.SECONDS);
+            assertEquals(name, item.getObjectName());
+            assertEquals(name, model.getItem(name).getObjectName());
+        }};
+    }
+
+    @Test
+    public void unknownNamesAreNotFoundWithoutTheFallback() throws Exception {
+        model.start(delegate);
+        system.actorOf(Props.create(ActorRegistryTest.PlainActor.class), "plain");
+
+        final CompletableFuture<ModelItem> future =
+                model.getItemAsync(new ObjectName("actors:type=/user,name=plain")).toCompletableFuture();
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof InstanceNotFoundException);
+        assertThrows(InstanceNotFoundException.class, () -> model.getItem(new ObjectName("actors:type=/user,name=plain")));
+
+        // Names in other domains are not this model's.
+        assertNull(model.getItemAsync(new ObjectName("other:type=/user,name=plain"))
+                .toCompletableFuture().get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void fallbackResolvesUnregisteredActors() throws Exception {
+        model.setResolveFallback(true);
+        model.start(delegate);
+        system.actorOf(Props.create(ActorRegistryTest.PlainActor.class), "plain");
+        final ObjectName name = new ObjectName("actors:type=/user,name=plain");
+
+        final ModelItem item = model.getItemAsync(name).toCompletableFuture().get(2, TimeUnit.SECONDS);
+        assertEquals(name, item.getObjectName());
+
+        final CompletableFuture<ModelItem> missing =
+                model.getItemAsync(new ObjectName("actors:type=/user,name=missing")).toCompletableFuture();
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> missing.get(2, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof InstanceNotFoundException);
+    }
+
+    @Test
+    public void indexFollowsRegistrations() throws Exception {
+        new TestKit(system) {{
+            listen(getRef());
+            model.start(delegate);
+            final ActorRef a = system.actorOf(Props.create(ActorRegistryTest.VisibleActor.class), "a");
+            final ActorRef b = system.actorOf(Props.create(ActorRegistryTest.VisibleActor.class), "b");
+            final ObjectName aName = model.generateObjectName(a);
+            final ObjectName bName = model.generateObjectName(b);
+            expectMsgAllOf(Arrays.asList(REGISTRATION_NOTIFICATION, aName), Arrays.asList(REGISTRATION_NOTIFICATION, bName));
+
+            assertEquals(Integer.valueOf(2), model.getMBeanCount());
+            assertEquals(new HashSet<>(Arrays.asList(aName, bName)),
+                    model.queryNames(new ObjectName("actors:type=/user,*"), n -> true));
+            assertEquals(Collections.singleton(bName), model.queryNames(new ObjectName("actors:name=b,*"), n -> true));
+
+            system.stop(a);
+            expectMsg(Arrays.asList(UNREGISTRATION_NOTIFICATION, aName));
+            assertEquals(Integer.valueOf(1), model.getMBeanCount());
+            assertFalse(model.contains(aName));
+            assertEquals(Collections.singleton(bName), model.queryNames(null, n -> true));
+        }};
+    }
+
+    @Test
+    public void ignoresActorsPastTheLimit() throws Exception {
+        new TestKit(system) {{
+            listen(getRef());
+            model.setMaxActors(1);
+            model.start(delegate);
+            final ActorRef a = system.actorOf(Props.create(ActorRegistryTest.VisibleActor.class), "a");
+            expectMsg(Arrays.asList(REGISTRATION_NOTIFICATION, model.generateObjectName(a)));
+            system.actorOf(Props.create(ActorRegistryTest.VisibleActor.class), "b");
+            expectNoMessage();
+            assertEquals(Integer.valueOf(1), model.getMBeanCount());
+        }};
+        assertThrows(IllegalArgumentException.class, () -> model.setMaxActors(0));
+    }
+
+    @Test
+    public void startAnnouncesExistingMembersOnce() throws Exception {
+        new TestKit(system) {{
+            final ActorRef a = system.actorOf(Props.create(ActorRegistryTest.VisibleActor.class), "a");
+            // Once the actor answers, preStart has run and its registration is ahead of the
+            // model's subscription in the registry's mailbox.
+            a.tell("ping", getRef());
+            expectMsg("ping");
+
+            listen(getRef());
+            model.start(delegate);
+            expectMsg(Arrays.asList(REGISTRATION_NOTIFICATION, model.generateObjectName(a)));
+            expectNoMessage();
+        }};
+    }
+
+    @Test
+    public void resyncAnnouncesOnlyTheDifference() throws Exception {
+        new TestKit(system) {{
+            listen(getRef());
+            model.start(delegate);
+            final ActorRef a = system.actorOf(Props.create(ActorRegistryTest.VisibleActor.class), "a");
+            expectMsg(Arrays.asList(REGISTRATION_NOTIFICATION, model.generateObjectName(a)));
+
+            model.resync();
+            expectNoMessage();
+            assertEquals(Integer.valueOf(1), model.getMBeanCount());
+
+            final ActorRef b = system.actorOf(Props.create(ActorRegistryTest.VisibleActor.class), "b");
+            expectMsg(Arrays.asList(REGISTRATION_NOTIFICATION, model.generateObjectName(b)));
+            model.resync();
+            expectNoMessage();
+            assertEquals(Integer.valueOf(2), model.getMBeanCount());
+        }};
+    }
+
+    @Test
+    public void containsAgreesWithLookups() throws Exception {
+        new TestKit(system) {{
+            listen(getRef());
+            model.start(delegate);
+            final ActorRef visible = system.actorOf(Props.create(ActorRegistryTest.VisibleActor.class), "visible");
+            final ObjectName visibleName = model.generateObjectName(visible);
+            expectMsg(Arrays.asList(REGISTRATION_NOTIFICATION, visibleName));
+            system.actorOf(Props.create(ActorRegistryTest.PlainActor.class), "plain");
+            final ObjectName plainName = new ObjectName("actors:type=/user,name=plain");
+
+            assertTrue(model.contains(visibleName));
+            assertFalse(model.contains(plainName));
+            assertFalse(model.contains(new ObjectName("other:type=/user,name=visible")));
+
+            model.setResolveFallback(true);
+            assertTrue(model.contains(plainName));
+            assertFalse(model.contains(new ObjectName("actors:type=/user,name=missing")));
+        }};
+    }
+
+    @Test
+    public void stoppedModelContainsNothing() throws Exception {
+        model.start(delegate);
+        model.stop();
+        assertFalse(model.contains(new ObjectName("actors:type=/user,name=visible")));
+        final CompletableFuture<ModelItem> future =
+                model.getItemAsync(new ObjectName("actors:type=/user,name=visible")).toCompletableFuture();
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof StacklessInstanceNotFoundException);
+    }
+
+    // Tells the probe the type and name of every notification the model sends.
+    private void listen(ActorRef probe) {
+        delegate.addNotificationListener((notification, handback) -> {
+            final MBeanServerNotification n = (MBeanServerNotification) notification;
+            probe.tell(Arrays.asList(n.getType(), n.getMBeanName()), ActorRef.noSender());
+        }, null, null);
+    }
+}
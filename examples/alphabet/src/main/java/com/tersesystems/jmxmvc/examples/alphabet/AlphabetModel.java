@@ -1,13 +1,14 @@
 package com.tersesystems.jmxmvc.examples.alphabet;
 
 import com.tersesystems.jmxmvc.model.AbstractModel;
-import com.tersesystems.jmxmvc.model.AbstractModelItem;
+import com.tersesystems.jmxmvc.model.AccessorModelItem;
+import com.tersesystems.jmxmvc.model.Accessors;
 import com.tersesystems.jmxmvc.model.ModelItem;
+import com.tersesystems.jmxmvc.model.StacklessInstanceNotFoundException;
 import org.slf4j.Logger;
 
 import javax.management.*;
 import java.util.*;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -19,28 +20,23 @@ public class AlphabetModel extends AbstractModel<Character> {
 
     private static final String VirtualAlphabetObject = "VirtualAlphabetObject";
 
+    private static final Accessors<Character> accessors =
+            Accessors.<Character>builder("letter", "An MBean representing a letter in the alphabet")
+                    .withAttribute("Vowel", boolean.class, "True if this MBean represents a vowel", AlphabetModel::isVowel)
+                    .build();
+
     private boolean running = false;
 
     private Character[] alphabet = new Character[26];
     private MBeanServerDelegate delegate;
 
     public AlphabetModel(String domain) {
-        super(domain);
+        super(domain, true);
     }
 
     @Override
-    protected MBeanInfo generateMBeanInfo(Character element) {
-        final MBeanAttributeInfo[] attributeInfos =
-                new MBeanAttributeInfo[]{
-                        new MBeanAttributeInfo("Vowel", "boolean",
-                                "True if this MBean represents a vowel",
-                                true, false, false),
-                };
-
-        return new MBeanInfo("letter",
-                "An MBean representing a letter in the alphabet",
-                attributeInfos,
-                null, null, null);
+    protected Accessors<Character> getAccessors(Character element) {
+        return accessors;
     }
 
     @Override
@@ -59,12 +55,14 @@ public class AlphabetModel extends AbstractModel<Character> {
         int i = 0;
         for (char c = 'A'; c <= 'Z'; c++) {
             alphabet[i++] = c;
+            addToIndex(c);
         }
         running = true;
     }
 
     @Override
     public void stop() throws Exception {
+        index.clear();
         alphabet = null;
         running = false;
     }
@@ -90,20 +88,17 @@ public class AlphabetModel extends AbstractModel<Character> {
 
         if (!isRunning()) {
             logger.error("getItem: model is not running!");
-            throw new InstanceNotFoundException(name +
-                    ": MBean not found.");
+            throw StacklessInstanceNotFoundException.of(name);
         }
 
-        Character ch = findFromName(name).orElseThrow(() -> new InstanceNotFoundException(name + ": MBean not found."));
+        Character ch = findFromName(name).orElseThrow(() -> StacklessInstanceNotFoundException.of(name));
         if (Arrays.binarySearch(alphabet, ch) < 0) {
             logger.error("getItem: {} is not found in alphabet!", ch);
-            throw new InstanceNotFoundException(name +
-                    ": MBean not found.");
+            throw StacklessInstanceNotFoundException.of(name);
         }
 
         ObjectInstance objectInstance = generateObjectInstance(name, ch);
-        MBeanInfo beanInfo = generateMBeanInfo(ch);
-        return new AlphabetModelItem(name, objectInstance, beanInfo, ch);
+        return new AccessorModelItem<>(name, objectInstance, accessors, ch);
     }
 
     @Override
@@ -111,16 +106,6 @@ public class AlphabetModel extends AbstractModel<Character> {
         return alphabet.length;
     }
 
-    @Override
-    public Set<ObjectName> queryNames(ObjectName name, Function<ObjectName, Boolean> queryFunction) {
-        return new NameQuery(name, () -> Arrays.asList(alphabet), queryFunction).getResults();
-    }
-
-    @Override
-    public Set<ObjectInstance> queryMBeans(ObjectName name, Function<ObjectName, Boolean> queryFunction) {
-        return new MBeanQuery(name, () -> Arrays.asList(alphabet), queryFunction).getResults();
-    }
-
     private Optional<Character> findFromName(ObjectName name) {
         logger.trace("findFromName: name = {}", name);
         String letter = name.getKeyProperty("letter");
@@ -130,29 +115,11 @@ public class AlphabetModel extends AbstractModel<Character> {
         return Optional.of(letter.charAt(0));
     }
 
-    static class AlphabetModelItem extends AbstractModelItem<Character> {
-        AlphabetModelItem(ObjectName objectName, ObjectInstance objectInstance, MBeanInfo mBeanInfo, Character element) {
-            super(objectName, objectInstance, mBeanInfo, element);
-        }
-
-        @Override
-        public Object invoke(String operationName, Object[] params, String[] signature) throws Exception {
-            logger.trace("invoke: operationName = {}", operationName);
-            return null;
-        }
-
-        @Override
-        public Object getAttribute(String attribute) {
-            logger.trace("getAttribute: attribute = {}", attribute);
-            return isVowel(getElement());
-        }
-
-        boolean isVowel(Character element) {
-            boolean isVowel = false;
-            if (element == 'a' || element == 'e' || element == 'i' || element == 'o' || element == 'u') {
-                isVowel = true;
-            }
-            return isVowel;
+    static boolean isVowel(Character element) {
+        boolean isVowel = false;
+        if (element == 'a' || element == 'e' || element == 'i' || element == 'o' || element == 'u') {
+            isVowel = true;
         }
+        return isVowel;
     }
 }
@@ -0,0 +1,103 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.benchmarks;
+
+import com.tersesystems.jmxmvc.view.BoundedModelItemCache;
+import com.tersesystems.jmxmvc.view.ModelItemCache;
+import com.tersesystems.jmxmvc.view.NoModelItemCache;
+import com.tersesystems.jmxmvc.view.ViewInterceptor;
+import com.tersesystems.jmxmvc.view.ViewInterceptorBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import javax.management.AttributeList;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getAttribute, getAttributes, getMBeanInfo and isRegistered through the platform MBeanServer
+ * with the master interceptor installed, with and without an item cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttributeBenchmark {
+
+    @Param({"none", "bounded"})
+    public String cache;
+
+    private MBeanServer mBeanServer;
+    private ViewInterceptor interceptor;
+
+    private ObjectName name;
+    private ObjectName missing;
+    private String[] attributes;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        final ModelItemCache itemCache = "bounded".equals(cache)
+                ? new BoundedModelItemCache(10000, 1, TimeUnit.MINUTES)
+                : NoModelItemCache.INSTANCE;
+
+        mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        interceptor = new ViewInterceptorBuilder(mBeanServer)
+                .withModel(new SyntheticModel("synthetic", 10000, false))
+                .withItemCache(itemCache)
+                .build();
+        interceptor.start();
+
+        name = new ObjectName("synthetic:type=t42,name=n4242");
+        missing = new ObjectName("synthetic:type=t42,name=n424242");
+        attributes = new String[]{"Value", "Type"};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        interceptor.stop();
+    }
+
+    @Benchmark
+    public Object getAttribute() throws Exception {
+        return mBeanServer.getAttribute(name, "Value");
+    }
+
+    @Benchmark
+    public AttributeList getAttributes() throws Exception {
+        return mBeanServer.getAttributes(name, attributes);
+    }
+
+    @Benchmark
+    public MBeanInfo getMBeanInfo() throws Exception {
+        return mBeanServer.getMBeanInfo(name);
+    }
+
+    @Benchmark
+    public boolean isRegistered() {
+        return mBeanServer.isRegistered(name);
+    }
+
+    @Benchmark
+    public boolean isRegisteredMissing() {
+        return mBeanServer.isRegistered(missing);
+    }
+}
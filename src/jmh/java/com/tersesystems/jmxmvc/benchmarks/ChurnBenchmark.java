@@ -0,0 +1,77 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.benchmarks;
+
+import com.tersesystems.jmxmvc.model.ObjectNameIndex;
+import org.openjdk.jmh.annotations.*;
+
+import javax.management.ObjectName;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A registry of {@code size} elements where every operation retires the oldest element and
+ * registers a new one, as an actor system with short lived per-request actors does.  Compares
+ * the name index against the copy-on-write list that models used to keep.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChurnBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    private ObjectNameIndex<Integer> index;
+    private CopyOnWriteArrayList<Integer> list;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setup() throws Exception {
+        index = new ObjectNameIndex<>();
+        list = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < size; i++) {
+            index.add(i, name(i));
+            list.add(i);
+        }
+        next = size;
+    }
+
+    @Benchmark
+    public ObjectName index() throws Exception {
+        final int element = next++;
+        index.remove(element - size);
+        final ObjectName name = name(element);
+        index.add(element, name);
+        return name;
+    }
+
+    @Benchmark
+    public boolean copyOnWriteList() {
+        final int element = next++;
+        list.remove(Integer.valueOf(element - size));
+        return list.addIfAbsent(element);
+    }
+
+    private static ObjectName name(int i) throws Exception {
+        return new ObjectName("synthetic:type=t" + (i % SyntheticModel.TYPES) + ",name=n" + i);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.benchmarks;
+
+import com.tersesystems.jmxmvc.model.AbstractModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerNotification;
+import javax.management.NotificationFilterSupport;
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generating registration notifications for a batch of names and fanning them out through the
+ * MBeanServerDelegate to a number of listeners, as a model does when it discovers new elements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int listeners;
+
+    @Param({"1000"})
+    public int batch;
+
+    private MBeanServerDelegate delegate;
+    private List<ObjectName> names;
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole blackhole) throws Exception {
+        delegate = new MBeanServerDelegate();
+        for (int i = 0; i < listeners; i++) {
+            final NotificationFilterSupport filter = new NotificationFilterSupport();
+            filter.enableType(MBeanServerNotification.REGISTRATION_NOTIFICATION);
+            delegate.addNotificationListener((notification, handback) -> blackhole.consume(notification), filter, null);
+        }
+
+        names = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++) {
+            names.add(new ObjectName("synthetic:type=t" + (i % 100) + ",name=n" + i));
+        }
+    }
+
+    @Benchmark
+    public void fanOut() {
+        final List<MBeanServerNotification> list =
+                AbstractModel.generateNotifications(MBeanServerNotification.REGISTRATION_NOTIFICATION, names);
+        for (MBeanServerNotification notification : list) {
+            delegate.sendNotification(notification);
+        }
+    }
+}
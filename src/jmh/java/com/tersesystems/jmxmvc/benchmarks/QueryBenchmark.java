@@ -0,0 +1,136 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.benchmarks;
+
+import com.tersesystems.jmxmvc.model.AttributeTable;
+import com.tersesystems.jmxmvc.view.ViewInterceptor;
+import com.tersesystems.jmxmvc.view.ViewInterceptorBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectInstance;
+import javax.management.ObjectName;
+import javax.management.Query;
+import javax.management.QueryExp;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * queryNames and queryMBeans through the platform MBeanServer with the master interceptor
+ * installed, against virtual MBeans in the "synthetic" domain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class QueryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private MBeanServer mBeanServer;
+    private ViewInterceptor interceptor;
+
+    private ObjectName all;
+    private ObjectName byType;
+    private ObjectName exact;
+    private ObjectName otherDomain;
+    private QueryExp evenQuery;
+    private QueryExp rangeQuery;
+    private QueryExp selectiveQuery;
+    private String[] exported;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        interceptor = new ViewInterceptorBuilder(mBeanServer)
+                .withModel(new SyntheticModel("synthetic", size, indexed))
+                .build();
+        interceptor.start();
+
+        all = new ObjectName("synthetic:*");
+        byType = new ObjectName("synthetic:type=t42,*");
+        exact = new ObjectName("synthetic:type=t7,name=n7");
+        otherDomain = new ObjectName("java.lang:*");
+        evenQuery = Query.eq(Query.attr("Even"), Query.value(true));
+        rangeQuery = Query.and(Query.gt(Query.attr("Value"), Query.value(size / 2)), evenQuery);
+        selectiveQuery = Query.between(Query.attr("Value"), Query.value(size / 2), Query.value(size / 2 + 10));
+        exported = new String[]{"Value", "Even", "Type"};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        interceptor.stop();
+    }
+
+    @Benchmark
+    public Set<ObjectName> queryNamesAll() {
+        return mBeanServer.queryNames(all, null);
+    }
+
+    @Benchmark
+    public Set<ObjectName> queryNamesByType() {
+        return mBeanServer.queryNames(byType, null);
+    }
+
+    @Benchmark
+    public Set<ObjectName> queryNamesExact() {
+        return mBeanServer.queryNames(exact, null);
+    }
+
+    @Benchmark
+    public Set<ObjectName> queryNamesOtherDomain() {
+        return mBeanServer.queryNames(otherDomain, null);
+    }
+
+    @Benchmark
+    public Set<ObjectName> queryNamesByTypeWithQuery() {
+        return mBeanServer.queryNames(byType, evenQuery);
+    }
+
+    @Benchmark
+    public Set<ObjectName> queryNamesAllWithQuery() {
+        return mBeanServer.queryNames(all, rangeQuery);
+    }
+
+    @Benchmark
+    public Set<ObjectName> queryNamesAllWithSelectiveQuery() {
+        return mBeanServer.queryNames(all, selectiveQuery);
+    }
+
+    @Benchmark
+    public Set<ObjectInstance> queryMBeansAll() {
+        return mBeanServer.queryMBeans(all, null);
+    }
+
+    @Benchmark
+    public Set<ObjectInstance> queryMBeansByType() {
+        return mBeanServer.queryMBeans(byType, null);
+    }
+
+    @Benchmark
+    public AttributeTable exportAttributesByType() throws Exception {
+        return interceptor.exportAttributes(byType, exported);
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.benchmarks;
+
+import com.tersesystems.jmxmvc.model.AbstractModel;
+import com.tersesystems.jmxmvc.model.AccessorModelItem;
+import com.tersesystems.jmxmvc.model.Accessors;
+import com.tersesystems.jmxmvc.model.ModelItem;
+import com.tersesystems.jmxmvc.model.StacklessInstanceNotFoundException;
+
+import javax.management.*;
+import java.util.*;
+
+/**
+ * A model of {@code size} integers, named {@code domain:type=t<i % 100>,name=n<i>}, with
+ * attributes that cost nothing to compute, so the benchmarks measure the framework and not the
+ * model.  An indexed model also indexes the Value attribute.
+ */
+public class SyntheticModel extends AbstractModel<Integer> {
+
+    static final int TYPES = 100;
+
+    private static final Accessors<Integer> accessors = Accessors.<Integer>builder("synthetic", "A synthetic MBean")
+            .withAttribute("Value", int.class, "The element", element -> element)
+            .withAttribute(new MBeanAttributeInfo("Even", "boolean", "True if the element is even", true, false, true),
+                    boolean.class, element -> (element & 1) == 0, null)
+            .withAttribute("Type", String.class, "The type of the element", SyntheticModel::type)
+            .build();
+
+    private final List<Integer> elements;
+    private MBeanServerDelegate delegate;
+    private volatile boolean running;
+
+    public SyntheticModel(String domain, int size, boolean indexed) throws MalformedObjectNameException {
+        super(domain, indexed);
+        if (indexed) indexAttribute("Value", element -> element);
+        final List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+            if (indexed) addToIndex(i);
+        }
+        this.elements = Collections.unmodifiableList(list);
+    }
+
+    public MBeanServerDelegate getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void start(MBeanServerDelegate delegate) {
+        this.delegate = delegate;
+        this.running = true;
+    }
+
+    @Override
+    public void stop() {
+        this.running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public ModelItem getItem(ObjectName name) throws InstanceNotFoundException {
+        final String n = name.getKeyProperty("name");
+        if (n == null || !n.startsWith("n")) {
+            throw StacklessInstanceNotFoundException.of(name);
+        }
+        final int i;
+        try {
+            i = Integer.parseInt(n.substring(1));
+        } catch (NumberFormatException e) {
+            throw StacklessInstanceNotFoundException.of(name);
+        }
+        if (i < 0 || i >= elements.size()) {
+            throw StacklessInstanceNotFoundException.of(name);
+        }
+        final Integer element = elements.get(i);
+        return new AccessorModelItem<>(name, generateObjectInstance(name, element), accessors, element);
+    }
+
+    @Override
+    protected Iterable<Integer> getElements() {
+        return elements;
+    }
+
+    @Override
+    public Integer getMBeanCount() {
+        return elements.size();
+    }
+
+    @Override
+    protected Accessors<Integer> getAccessors(Integer element) {
+        return accessors;
+    }
+
+    @Override
+    protected String generateMBeanClassName(Integer element) {
+        return "SyntheticObject";
+    }
+
+    @Override
+    protected Map<String, String> generateObjectNameProperties(Integer element) {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("type", type(element));
+        properties.put("name", "n" + element);
+        return properties;
+    }
+
+    static String type(Integer element) {
+        return "t" + (element % TYPES);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.benchmarks;
+
+import com.tersesystems.jmxmvc.model.Helpers;
+import com.tersesystems.jmxmvc.model.ObjectNamePattern;
+import com.tersesystems.jmxmvc.model.WildcardPattern;
+import org.openjdk.jmh.annotations.*;
+
+import javax.management.ObjectName;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Domain wildcard matching and object name pattern matching, with a range of wildcard shapes
+ * including one that backtracks heavily, both through the {@link Helpers} entry points and with
+ * patterns compiled up front as the queries do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WildmatchBenchmark {
+
+    @Param({
+            "synthetic",
+            "*",
+            "synth*",
+            "*etic",
+            "s?nth?tic",
+            "*y*t*e*",
+            "*a*a*a*a*a*a*b"
+    })
+    public String pattern;
+
+    private final String domain = "synthetic";
+    private final String hostile = "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa";
+
+    private ObjectName name;
+    private ObjectName namePattern;
+    private WildcardPattern compiled;
+    private ObjectNamePattern compiledNamePattern;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        name = new ObjectName("synthetic:type=t42,name=n4242");
+        namePattern = new ObjectName(pattern + ":type=t42,*");
+        compiled = WildcardPattern.compile(pattern);
+        compiledNamePattern = ObjectNamePattern.compile(namePattern);
+    }
+
+    @Benchmark
+    public boolean wildmatchDomain() {
+        return Helpers.wildmatch(domain.toCharArray(), pattern.toCharArray(), 0, 0);
+    }
+
+    @Benchmark
+    public boolean wildmatchHostile() {
+        return Helpers.wildmatch(hostile.toCharArray(), pattern.toCharArray(), 0, 0);
+    }
+
+    @Benchmark
+    public boolean matchesObjectName() {
+        return Helpers.matches(name, namePattern);
+    }
+
+    @Benchmark
+    public boolean compiledDomain() {
+        return compiled.matches(domain);
+    }
+
+    @Benchmark
+    public boolean compiledHostile() {
+        return compiled.matches(hostile);
+    }
+
+    @Benchmark
+    public boolean compiledObjectName() {
+        return compiledNamePattern.matches(name);
+    }
+}
@@ -22,8 +22,13 @@ import org.slf4j.Logger;
 
 import javax.management.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class AbstractModel<T> implements Model {
     private static final ObjectName delegateName;
@@ -38,8 +43,48 @@ public abstract class AbstractModel<T> implements Model {
 
     protected final String domain;
 
+    /**
+     * The name index, or null if this model is not indexed.
+     */
+    protected final ObjectNameIndex<T> index;
+
+    private final ConcurrentHashMap<Object, TypeInfo> typeInfos = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, AttributeIndex<T>> attributeIndexes = new ConcurrentHashMap<>();
+
+    private volatile long parallelThreshold = Long.MAX_VALUE;
+    private volatile ForkJoinPool queryPool = ForkJoinPool.commonPool();
+
     public AbstractModel(String domain) {
+        this(domain, false);
+    }
+
+    /**
+     * @param domain the domain of the model.
+     * @param indexed if true, the model keeps an index of its elements by name, and queries are
+     *                answered from the index instead of the supplier.  Elements must be added with
+     *                {@link #addToIndex(Object)} and removed with {@link #removeFromIndex(Object)}.
+     */
+    public AbstractModel(String domain, boolean indexed) {
         this.domain = domain;
+        this.index = indexed ? new ObjectNameIndex<>() : null;
+    }
+
+    public boolean isIndexed() {
+        return index != null;
+    }
+
+    /**
+     * Evaluates queries over at least {@code threshold} elements in parallel on the given pool.
+     * Name generation, matching and the query function then run on several threads at once, so
+     * {@link #generateObjectNameProperties(Object)} and friends must be thread safe.
+     */
+    public void setParallelQueries(long threshold, ForkJoinPool pool) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
+        this.queryPool = Objects.requireNonNull(pool, "Null pool");
+        this.parallelThreshold = threshold;
     }
 
     @Override
@@ -53,14 +98,144 @@ public abstract class AbstractModel<T> implements Model {
     }
 
     public ObjectName generateObjectName(T element) throws MalformedObjectNameException {
+        if (index != null) {
+            final ObjectName name = index.getName(element);
+            if (name != null) return name;
+        }
+        return createObjectName(element);
+    }
+
+    private ObjectName createObjectName(T element) throws MalformedObjectNameException {
         Map<String, String> properties = generateObjectNameProperties(element);
         Hashtable<String, String> hashtable = new Hashtable<>(properties);
         return new ObjectName(getDefaultDomain(), hashtable);
     }
 
-    protected abstract MBeanInfo generateMBeanInfo(T element);
+    protected ObjectName addToIndex(T element) throws MalformedObjectNameException {
+        requireIndex();
+        final ObjectName name = createObjectName(element);
+        index.add(element, name);
+        for (AttributeIndex<T> attributeIndex : attributeIndexes.values()) {
+            attributeIndex.update(element);
+        }
+        return name;
+    }
+
+    protected ObjectName removeFromIndex(T element) {
+        requireIndex();
+        for (AttributeIndex<T> attributeIndex : attributeIndexes.values()) {
+            attributeIndex.remove(element);
+        }
+        return index.remove(element);
+    }
+
+    /**
+     * Keeps a sorted index of the attribute's value, so that queries comparing the attribute with a
+     * constant only look at the elements in range.  The extractor reads the value from an element,
+     * and must agree with what the element's item returns.  Elements already in the index are
+     * indexed straight away; after that, values are read when an element is added, and again when
+     * {@link #reindexAttributes(Object)} is called, which the model must do whenever a value
+     * changes.  Only indexed models can index attributes, and they should declare their attribute
+     * indexes while they are being set up, before elements start to come and go.
+     */
+    protected void indexAttribute(String attribute, Function<T, ?> extractor) {
+        requireIndex();
+        final AttributeIndex<T> attributeIndex = new AttributeIndex<>(attribute, extractor);
+        for (T element : index.getElements()) {
+            attributeIndex.update(element);
+        }
+        attributeIndexes.put(attribute, attributeIndex);
+    }
+
+    /**
+     * Reads the indexed attributes of an element again, after its values have changed.
+     */
+    protected void reindexAttributes(T element) {
+        if (index == null || index.getName(element) == null) return;
+        for (AttributeIndex<T> attributeIndex : attributeIndexes.values()) {
+            attributeIndex.update(element);
+        }
+    }
+
+    public boolean isAttributeIndexed(String attribute) {
+        return attributeIndexes.containsKey(attribute);
+    }
+
+    private void requireIndex() {
+        if (index == null) {
+            throw new IllegalStateException("Model " + domain + " is not indexed");
+        }
+    }
+
+    /**
+     * An indexed model answers from the index, without building an item.
+     */
+    @Override
+    public boolean contains(ObjectName name) {
+        if (index != null) {
+            return index.contains(name);
+        }
+        return Model.super.contains(name);
+    }
+
+    /**
+     * The accessors for the element, or null if the model generates MBeanInfo and items itself.
+     * Models that use {@link AccessorModelItem} return the same Accessors for every element of a
+     * type, and get MBeanInfo and the MBean class name from it.
+     */
+    protected Accessors<T> getAccessors(T element) {
+        return null;
+    }
+
+    protected MBeanInfo generateMBeanInfo(T element) {
+        return requireAccessors(element).getTypeInfo().getMBeanInfo();
+    }
+
+    /**
+     * The key under which the element's MBeanInfo is cached, or null to generate a new MBeanInfo
+     * every time.  Elements with the same key must have the same MBeanInfo.  The default is null;
+     * models where every element has the same shape can return the MBean class name.
+     */
+    protected Object getTypeKey(T element) {
+        return null;
+    }
+
+    /**
+     * Returns the MBeanInfo for the element, generated once per type key.
+     */
+    public TypeInfo getTypeInfo(T element) {
+        final Accessors<T> accessors = getAccessors(element);
+        if (accessors != null) {
+            return accessors.getTypeInfo();
+        }
+        final Object key = getTypeKey(element);
+        if (key == null) {
+            return new TypeInfo(generateMBeanInfo(element));
+        }
+        return typeInfos.computeIfAbsent(key, k -> new TypeInfo(generateMBeanInfo(element)));
+    }
+
+    /**
+     * Discards cached MBeanInfo, for models whose types change at runtime.
+     */
+    protected void invalidateTypeInfo() {
+        typeInfos.clear();
+    }
+
     protected abstract Map<String, String> generateObjectNameProperties(T element);
-    protected abstract String generateMBeanClassName(T element);
+
+    protected String generateMBeanClassName(T element) {
+        return requireAccessors(element).getTypeInfo().getMBeanInfo().getClassName();
+    }
+
+    private Accessors<T> requireAccessors(T element) {
+        final Accessors<T> accessors = getAccessors(element);
+        if (accessors == null) {
+            throw new UnsupportedOperationException(getClass().getName()
+                    + " must override generateMBeanInfo() and generateMBeanClassName(), or getAccessors()");
+        }
+        return accessors;
+    }
 
     @Override
     public Object invoke(ModelItem item, String operationName, Object[] params, String[] signature) throws Exception {
@@ -79,86 +254,279 @@ public abstract class AbstractModel<T> implements Model {
         return list;
     }
 
-    public class NameQuery {
-        private final Logger logger = org.slf4j.LoggerFactory.getLogger(NameQuery.class);
+    /**
+     * The elements of the model, which queries are evaluated against.  An indexed model answers
+     * with the elements in its index; other models override this.
+     */
+    protected Iterable<T> getElements() {
+        if (index != null) {
+            return index.getElements();
+        }
+        throw new UnsupportedOperationException(getClass().getName() + " must override getElements()");
+    }
+
+    @Override
+    public Set<ObjectName> queryNames(ObjectName name, Function<ObjectName, Boolean> queryFunction) {
+        return new NameQuery(name, this::getElements, queryFunction).getResults();
+    }
+
+    @Override
+    public Set<ObjectInstance> queryMBeans(ObjectName name, Function<ObjectName, Boolean> queryFunction) {
+        return new MBeanQuery(name, this::getElements, queryFunction).getResults();
+    }
+
+    @Override
+    public Stream<ObjectName> streamNames(ObjectName name, Function<ObjectName, Boolean> queryFunction) {
+        return new NameQuery(name, this::getElements, queryFunction).stream();
+    }
+
+    @Override
+    public Stream<ObjectInstance> streamMBeans(ObjectName name, Function<ObjectName, Boolean> queryFunction) {
+        return new MBeanQuery(name, this::getElements, queryFunction).stream();
+    }
+
+    @Override
+    public Set<ObjectName> queryNames(ObjectName name, List<AttributeRange> ranges,
+                                      Function<ObjectName, Boolean> queryFunction) {
+        return new NameQuery(name, ranges, this::getElements, queryFunction).getResults();
+    }
+
+    @Override
+    public Set<ObjectInstance> queryMBeans(ObjectName name, List<AttributeRange> ranges,
+                                           Function<ObjectName, Boolean> queryFunction) {
+        return new MBeanQuery(name, ranges, this::getElements, queryFunction).getResults();
+    }
+
+    @Override
+    public Stream<ObjectName> streamNames(ObjectName name, List<AttributeRange> ranges,
+                                          Function<ObjectName, Boolean> queryFunction) {
+        return new NameQuery(name, ranges, this::getElements, queryFunction).stream();
+    }
+
+    @Override
+    public Stream<ObjectInstance> streamMBeans(ObjectName name, List<AttributeRange> ranges,
+                                               Function<ObjectName, Boolean> queryFunction) {
+        return new MBeanQuery(name, ranges, this::getElements, queryFunction).stream();
+    }
+
+    /**
+     * Reads the attributes straight from the matching elements, without resolving each name back
+     * to an item.  Each row reflects its element at the moment it was read; an item that fails to
+     * read is kept as a failed row.
+     */
+    @Override
+    public AttributeTable exportAttributes(ObjectName pattern, String[] attributes) {
+        final AttributeTable.Builder table = AttributeTable.builder(attributes);
+        new ExportQuery(pattern, attributes).stream().forEach(row -> {
+            if (row.failure != null) {
+                table.addFailedRow(row.name, row.failure);
+            } else {
+                table.addRow(row.name, row.values);
+            }
+        });
+        return table.build();
+    }
+
+    /**
+     * Creates the item for an element that is already known, or returns null if the model can only
+     * create items through {@link #getItem(ObjectName)}.  The default implementation creates an
+     * {@link AccessorModelItem} for models with accessors.
+     */
+    protected ModelItem createItem(ObjectName name, T element) {
+        final Accessors<T> accessors = getAccessors(element);
+        if (accessors == null) {
+            return null;
+        }
+        return new AccessorModelItem<>(name, generateObjectInstance(name, element), accessors, element);
+    }
+
+    /**
+     * Evaluates a query lazily, one element at a time, so that a caller that pages through the
+     * results never holds more than a page of them.
+     */
+    protected abstract class ElementQuery<R> {
+        private final Logger logger = org.slf4j.LoggerFactory.getLogger(getClass());
 
         private final ObjectName name;
+        private final ObjectNamePattern pattern;
+        private final List<AttributeRange> ranges;
         private final Supplier<Iterable<T>> supplier;
-        private Function<ObjectName, Boolean> queryFunction;
+        private final Function<ObjectName, Boolean> queryFunction;
 
-        public NameQuery(ObjectName name, Supplier<Iterable<T>> supplier, Function<ObjectName, Boolean> queryFunction) {
+        ElementQuery(ObjectName name, List<AttributeRange> ranges, Supplier<Iterable<T>> supplier,
+                     Function<ObjectName, Boolean> queryFunction) {
             this.name = name;
+            this.pattern = ObjectNamePattern.compile(name);
+            this.ranges = (ranges == null) ? Collections.emptyList() : ranges;
             this.supplier = supplier;
             this.queryFunction = queryFunction;
         }
 
-        private void addName(final ObjectName pattern, final T element, final Set<ObjectName> result) {
+        public Stream<R> stream() {
+            if (!pattern.matchesDomain(domain))
+                return Stream.empty();
+            return stream(source().spliterator(), false);
+        }
+
+        /**
+         * Collects the results, splitting the elements across the query pool when there are at
+         * least as many as the parallel threshold.
+         */
+        public Set<R> getResults() {
+            if (!pattern.matchesDomain(domain))
+                return Collections.emptySet();
+
+            final Iterable<T> source = source();
+            final Spliterator<T> spliterator = source.spliterator();
+            if (!isParallel(source, spliterator)) {
+                return stream(spliterator, false).collect(Collectors.toCollection(HashSet::new));
+            }
+
+            final Set<R> result = ConcurrentHashMap.newKeySet();
+            queryPool.submit(() -> stream(spliterator, true).forEach(result::add)).join();
+            return result;
+        }
+
+        /**
+         * Starts from whichever is smaller: the elements matching the name, or the elements in the
+         * narrowest indexed attribute range.
+         */
+        private Iterable<T> source() {
+            if (index == null) {
+                return supplier.get();
+            }
+            Collection<T> smallest = index.candidates(name);
+            for (AttributeRange range : ranges) {
+                final AttributeIndex<T> attributeIndex = attributeIndexes.get(range.getAttribute());
+                if (attributeIndex == null) continue;
+                final Collection<T> candidates = attributeIndex.candidates(range);
+                if (candidates.size() < smallest.size()) {
+                    smallest = candidates;
+                }
+            }
+            return smallest;
+        }
+
+        /**
+         * Decides on the number of candidates, not the size of the model, so that a small candidate
+         * set from an index is never forked.
+         */
+        private boolean isParallel(Iterable<T> source, Spliterator<T> spliterator) {
+            final long threshold = parallelThreshold;
+            if (threshold == Long.MAX_VALUE) return false;
+            long size = (source instanceof Collection)
+                    ? ((Collection<?>) source).size()
+                    : spliterator.getExactSizeIfKnown();
+            if (size < 0) {
+                final Integer count = getMBeanCount();
+                size = (count == null) ? 0 : count;
+            }
+            return size >= threshold;
+        }
+
+        private Stream<R> stream(Spliterator<T> spliterator, boolean parallel) {
+            return StreamSupport.stream(spliterator, parallel)
+                    .map(this::evaluate)
+                    .filter(Objects::nonNull);
+        }
+
+        private R evaluate(final T element) {
             try {
-                if (element == null) return;
+                if (element == null) return null;
                 final ObjectName n = generateObjectName(element);
-                if ((!Helpers.matches(n, pattern)) || (!queryFunction.apply(n))) return;
-                result.add(n);
+                if ((!pattern.matches(n)) || (!queryFunction.apply(n))) return null;
+                return result(n, element);
             } catch (Exception x) {
-                logger.error("addName", x);
+                logger.error("evaluate", x);
+                return null;
             }
         }
 
-        public Set<ObjectName> getResults() {
-            if (name != null &&
-                    !Helpers.wildmatch(domain.toCharArray(),
-                            name.getDomain().toCharArray(), 0, 0))
-                return Collections.emptySet();
+        protected abstract R result(ObjectName name, T element);
+    }
 
-            final Iterable<T> list = supplier.get();
-            final HashSet<ObjectName> result = new HashSet<ObjectName>();
+    public class NameQuery extends ElementQuery<ObjectName> {
+        public NameQuery(ObjectName name, Supplier<Iterable<T>> supplier, Function<ObjectName, Boolean> queryFunction) {
+            super(name, null, supplier, queryFunction);
+        }
 
-            for (T element : list) {
-                addName(name, element, result);
-            }
-            return result;
+        public NameQuery(ObjectName name, List<AttributeRange> ranges, Supplier<Iterable<T>> supplier,
+                         Function<ObjectName, Boolean> queryFunction) {
+            super(name, ranges, supplier, queryFunction);
+        }
+
+        @Override
+        protected ObjectName result(ObjectName name, T element) {
+            return name;
         }
     }
 
-    public class MBeanQuery {
-        private final Logger logger = org.slf4j.LoggerFactory.getLogger(MBeanQuery.class);
+    public class MBeanQuery extends ElementQuery<ObjectInstance> {
+        public MBeanQuery(ObjectName name, Supplier<Iterable<T>> supplier, Function<ObjectName, Boolean> queryFunction) {
+            super(name, null, supplier, queryFunction);
+        }
 
-        private final ObjectName name;
-        private final Supplier<Iterable<T>> supplier;
-        private Function<ObjectName, Boolean> queryFunction;
+        public MBeanQuery(ObjectName name, List<AttributeRange> ranges, Supplier<Iterable<T>> supplier,
+                          Function<ObjectName, Boolean> queryFunction) {
+            super(name, ranges, supplier, queryFunction);
+        }
 
-        public MBeanQuery(ObjectName name, Supplier<Iterable<T>> supplier, Function<ObjectName, Boolean> queryFunction) {
-            this.name = name;
-            this.supplier = supplier;
-            this.queryFunction = queryFunction;
+        @Override
+        protected ObjectInstance result(ObjectName name, T element) {
+            return generateObjectInstance(name, element);
         }
+    }
 
-        public Set<ObjectInstance> getResults() {
-            if (name != null &&
-                    !Helpers.wildmatch(domain.toCharArray(),
-                            name.getDomain().toCharArray(), 0, 0))
-                return Collections.emptySet();
+    private class ExportQuery extends ElementQuery<ExportRow> {
+        private final String[] attributes;
 
-            final Iterable<T> list = supplier.get();
-            final Set<ObjectInstance> result = new HashSet<ObjectInstance>();
+        ExportQuery(ObjectName name, String[] attributes) {
+            super(name, null, AbstractModel.this::getElements, n -> true);
+            this.attributes = attributes;
+        }
 
-            for (T element : list) {
-                addMBean(name, element, result);
+        @Override
+        protected ExportRow result(ObjectName name, T element) {
+            final Accessors<T> accessors = getAccessors(element);
+            if (accessors != null) {
+                final Object[] values = new Object[attributes.length];
+                for (int i = 0; i < attributes.length; i++) {
+                    final int index = accessors.indexOf(attributes[i]);
+                    if (index < 0) continue;
+                    try {
+                        values[i] = accessors.get(element, index);
+                    } catch (Exception x) {
+                        // Leave the value out, as getAttributes does.
+                    }
+                }
+                return new ExportRow(name, values, null);
             }
-            return result;
-        }
 
-        private void addMBean(final ObjectName pattern, T element, Set<ObjectInstance> result) {
             try {
-                if (element == null) return;
-                final ObjectName n = generateObjectName(element);
-                if ((!Helpers.matches(n, pattern)) || (!queryFunction.apply(n))) return;
-                result.add(generateObjectInstance(n, element));
-            } catch (Exception x) {
-                logger.error("addMBean", x);
+                ModelItem item = createItem(name, element);
+                if (item == null) {
+                    item = getItem(name);
+                }
+                return new ExportRow(name, AttributeTable.values(attributes, item.getAttributes(attributes)), null);
+            } catch (InstanceNotFoundException x) {
+                // Gone since the element was found.
+                return null;
+            } catch (ReflectionException | RuntimeException x) {
+                return new ExportRow(name, null, x);
             }
         }
     }
 
+    private static final class ExportRow {
+        final ObjectName name;
+        final Object[] values;
+        final Throwable failure;
 
+        ExportRow(ObjectName name, Object[] values, Throwable failure) {
+            this.name = name;
+            this.values = values;
+            this.failure = failure;
+        }
+    }
 
 }
@@ -17,7 +17,9 @@
  */
 package com.tersesystems.jmxmvc.model;
 
+import javax.management.MBeanAttributeInfo;
 import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
 import javax.management.ObjectInstance;
 import javax.management.ObjectName;
 
@@ -29,12 +31,22 @@ public abstract class AbstractModelItem<T> implements ModelItem {
     protected final ObjectName objectName;
     protected final ObjectInstance objectInstance;
     protected final T element;
+    private final TypeInfo typeInfo;
 
     public AbstractModelItem(ObjectName objectName, ObjectInstance objectInstance, MBeanInfo mBeanInfo, T element) {
         this.objectInstance = objectInstance;
         this.objectName = objectName;
         this.mBeanInfo = mBeanInfo;
         this.element = element;
+        this.typeInfo = null;
+    }
+
+    public AbstractModelItem(ObjectName objectName, ObjectInstance objectInstance, TypeInfo typeInfo, T element) {
+        this.objectInstance = objectInstance;
+        this.objectName = objectName;
+        this.mBeanInfo = typeInfo.getMBeanInfo();
+        this.element = element;
+        this.typeInfo = typeInfo;
     }
 
     @Override
@@ -61,6 +73,22 @@ public abstract class AbstractModelItem<T> implements ModelItem {
         return mBeanInfo;
     }
 
+    @Override
+    public MBeanAttributeInfo getAttributeInfo(String attribute) {
+        if (typeInfo != null) {
+            return typeInfo.getAttribute(attribute);
+        }
+        return ModelItem.super.getAttributeInfo(attribute);
+    }
+
+    @Override
+    public MBeanOperationInfo getOperationInfo(String operation) {
+        if (typeInfo != null) {
+            return typeInfo.getOperation(operation);
+        }
+        return ModelItem.super.getOperationInfo(operation);
+    }
+
     @Override
     public String toString() {
         return format("ModelItem(objectName=%s, objectInstance=%s, element=%s)", objectName, objectInstance, mBeanInfo, element.toString());
@@ -0,0 +1,68 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import javax.management.*;
+
+/**
+ * A model item that answers attributes and operations from {@link Accessors}.
+ */
+public class AccessorModelItem<T> extends AbstractModelItem<T> {
+
+    private final Accessors<T> accessors;
+
+    public AccessorModelItem(ObjectName objectName, ObjectInstance objectInstance, Accessors<T> accessors, T element) {
+        super(objectName, objectInstance, accessors.getTypeInfo(), element);
+        this.accessors = accessors;
+    }
+
+    public Accessors<T> getAccessors() {
+        return accessors;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws MBeanException, AttributeNotFoundException {
+        return accessors.get(element, attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        final AttributeList list = new AttributeList(attributes.length);
+        for (String attribute : attributes) {
+            final int i = accessors.indexOf(attribute);
+            if (i < 0) continue;
+            try {
+                list.add(new Attribute(attribute, accessors.get(element, i)));
+            } catch (MBeanException | RuntimeException x) {
+                // Skip the attribute that couldn't be obtained.
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute)
+            throws AttributeNotFoundException, InvalidAttributeValueException, MBeanException {
+        accessors.set(element, attribute.getName(), attribute.getValue());
+    }
+
+    @Override
+    public Object invoke(String operationName, Object[] params, String[] signature) throws Exception {
+        return accessors.invoke(element, operationName, params);
+    }
+}
@@ -0,0 +1,251 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import javax.management.*;
+import java.util.*;
+
+/**
+ * Getters, setters and operations for one type of element, bound once and looked up by name.
+ * The MBeanInfo is generated from the accessors, so it cannot drift from what the item actually
+ * answers.
+ *
+ * <pre>
+ * Accessors&lt;Character&gt; accessors = Accessors.&lt;Character&gt;builder("Letter", "A letter")
+ *     .withAttribute("Vowel", boolean.class, "True if a vowel", ch -&gt; isVowel(ch))
+ *     .build();
+ * </pre>
+ */
+public final class Accessors<T> {
+
+    @FunctionalInterface
+    public interface Getter<T> {
+        Object get(T element) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Setter<T> {
+        void set(T element, Object value) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Operation<T> {
+        Object invoke(T element, Object[] params) throws Exception;
+    }
+
+    private final TypeInfo typeInfo;
+    private final Map<String, Integer> attributeIndex;
+    private final Class<?>[] types;
+    private final List<Getter<T>> getters;
+    private final List<Setter<T>> setters;
+    private final Map<String, Operation<T>> operations;
+
+    private Accessors(Builder<T> builder) {
+        final int size = builder.attributes.size();
+        final MBeanAttributeInfo[] attributeInfos = new MBeanAttributeInfo[size];
+        final Map<String, Integer> attributeIndex = new HashMap<>();
+        final List<Getter<T>> getters = new ArrayList<>(size);
+        final List<Setter<T>> setters = new ArrayList<>(size);
+        this.types = new Class<?>[size];
+        for (int i = 0; i < size; i++) {
+            final AttributeAccessor<T> accessor = builder.attributes.get(i);
+            attributeInfos[i] = accessor.info;
+            attributeIndex.put(accessor.info.getName(), i);
+            types[i] = accessor.type;
+            getters.add(accessor.getter);
+            setters.add(accessor.setter);
+        }
+        this.getters = Collections.unmodifiableList(getters);
+        this.setters = Collections.unmodifiableList(setters);
+        this.attributeIndex = Collections.unmodifiableMap(attributeIndex);
+
+        final MBeanOperationInfo[] operationInfos = builder.operationInfos.toArray(new MBeanOperationInfo[0]);
+        this.operations = Collections.unmodifiableMap(new HashMap<>(builder.operations));
+
+        this.typeInfo = new TypeInfo(new MBeanInfo(builder.className, builder.description,
+                attributeInfos, null, operationInfos, null));
+    }
+
+    public static <T> Builder<T> builder(String className, String description) {
+        return new Builder<>(className, description);
+    }
+
+    public TypeInfo getTypeInfo() {
+        return typeInfo;
+    }
+
+    /**
+     * Returns the position of the attribute, for use with {@link #get(Object, int)}, or -1 if
+     * there is no such attribute.
+     */
+    public int indexOf(String attribute) {
+        final Integer i = attributeIndex.get(attribute);
+        return i == null ? -1 : i;
+    }
+
+    public Object get(T element, String attribute) throws AttributeNotFoundException, MBeanException {
+        final int i = indexOf(attribute);
+        if (i < 0) {
+            throw new AttributeNotFoundException("No such attribute: " + attribute);
+        }
+        return get(element, i);
+    }
+
+    public Object get(T element, int index) throws MBeanException {
+        try {
+            return getters.get(index).get(element);
+        } catch (RuntimeException e) {
+            throw new RuntimeMBeanException(e, "Exception getting " + typeInfo.getAttributeNames()[index]);
+        } catch (Exception e) {
+            throw new MBeanException(e, "Exception getting " + typeInfo.getAttributeNames()[index]);
+        }
+    }
+
+    public boolean isWritable(String attribute) {
+        final int i = indexOf(attribute);
+        return i >= 0 && setters.get(i) != null;
+    }
+
+    public void set(T element, String attribute, Object value)
+            throws AttributeNotFoundException, InvalidAttributeValueException, MBeanException {
+        final int i = indexOf(attribute);
+        if (i < 0 || setters.get(i) == null) {
+            throw new AttributeNotFoundException(attribute + " not accessible");
+        }
+        final Class<?> type = types[i];
+        if (value == null ? type.isPrimitive() : !wrap(type).isInstance(value)) {
+            throw new InvalidAttributeValueException("Expected " + type.getName() + " for " + attribute
+                    + " but got " + (value == null ? "null" : value.getClass().getName()));
+        }
+        try {
+            setters.get(i).set(element, value);
+        } catch (RuntimeException e) {
+            throw new RuntimeMBeanException(e, "Exception setting " + attribute);
+        } catch (Exception e) {
+            throw new MBeanException(e, "Exception setting " + attribute);
+        }
+    }
+
+    public boolean hasOperation(String operationName) {
+        return operations.containsKey(operationName);
+    }
+
+    public Object invoke(T element, String operationName, Object[] params)
+            throws MBeanException, ReflectionException {
+        final Operation<T> operation = operations.get(operationName);
+        if (operation == null) {
+            throw new ReflectionException(new NoSuchMethodException(operationName),
+                    "The operation with name " + operationName + " could not be found");
+        }
+        try {
+            return operation.invoke(element, params == null ? new Object[0] : params);
+        } catch (RuntimeException e) {
+            throw new RuntimeMBeanException(e, "Exception invoking " + operationName);
+        } catch (Exception e) {
+            throw new MBeanException(e, "Exception invoking " + operationName);
+        }
+    }
+
+    // Values of primitive attributes arrive boxed.
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) return type;
+        if (type == boolean.class) return Boolean.class;
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == double.class) return Double.class;
+        if (type == float.class) return Float.class;
+        if (type == short.class) return Short.class;
+        if (type == byte.class) return Byte.class;
+        if (type == char.class) return Character.class;
+        return Void.class;
+    }
+
+    private static final class AttributeAccessor<T> {
+        final MBeanAttributeInfo info;
+        final Class<?> type;
+        final Getter<T> getter;
+        final Setter<T> setter;
+
+        AttributeAccessor(MBeanAttributeInfo info, Class<?> type, Getter<T> getter, Setter<T> setter) {
+            this.info = info;
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    public static final class Builder<T> {
+        private final String className;
+        private final String description;
+        private final List<AttributeAccessor<T>> attributes = new ArrayList<>();
+        private final List<MBeanOperationInfo> operationInfos = new ArrayList<>();
+        private final Map<String, Operation<T>> operations = new HashMap<>();
+
+        private Builder(String className, String description) {
+            this.className = Objects.requireNonNull(className, "Null className");
+            this.description = description;
+        }
+
+        public Builder<T> withAttribute(String name, Class<?> type, String description, Getter<T> getter) {
+            return withAttribute(name, type, description, getter, null);
+        }
+
+        public Builder<T> withAttribute(String name, Class<?> type, String description, Getter<T> getter, Setter<T> setter) {
+            return withAttribute(new MBeanAttributeInfo(name, type.getName(), description,
+                    true, setter != null, false), type, getter, setter);
+        }
+
+        /**
+         * Adds an attribute described by the given info, for attributes that need more than a name,
+         * type and description, such as an "is" getter.  The setter must be given if and only if
+         * the info says the attribute is writable.
+         */
+        public Builder<T> withAttribute(MBeanAttributeInfo info, Class<?> type, Getter<T> getter, Setter<T> setter) {
+            Objects.requireNonNull(getter, "Null getter");
+            if (info.isWritable() != (setter != null)) {
+                throw new IllegalArgumentException("Attribute " + info.getName()
+                        + (info.isWritable() ? " is writable but has no setter" : " is read only but has a setter"));
+            }
+            for (AttributeAccessor<T> attribute : attributes) {
+                if (attribute.info.getName().equals(info.getName())) {
+                    throw new IllegalArgumentException("Duplicate attribute " + info.getName());
+                }
+            }
+            attributes.add(new AttributeAccessor<>(info, type, getter, setter));
+            return this;
+        }
+
+        public Builder<T> withOperation(String name, String description, Class<?> returnType, Operation<T> operation) {
+            return withOperation(new MBeanOperationInfo(name, description, new MBeanParameterInfo[0],
+                    returnType.getName(), MBeanOperationInfo.ACTION), operation);
+        }
+
+        public Builder<T> withOperation(MBeanOperationInfo info, Operation<T> operation) {
+            Objects.requireNonNull(operation, "Null operation");
+            if (operations.putIfAbsent(info.getName(), operation) != null) {
+                throw new IllegalArgumentException("Duplicate operation " + info.getName());
+            }
+            operationInfos.add(info);
+            return this;
+        }
+
+        public Accessors<T> build() {
+            return new Accessors<>(this);
+        }
+    }
+}
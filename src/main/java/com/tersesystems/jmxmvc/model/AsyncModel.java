@@ -0,0 +1,57 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.ObjectName;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A model that resolves items asynchronously, so that requests can be pipelined and in-process
+ * callers can consume results without parking a thread.
+ *
+ * The view adapts it to the synchronous MBeanServer contract by waiting at most as long as the
+ * model's {@link TimeoutPolicy} allows, for items, attributes and operations alike.
+ */
+public interface AsyncModel extends Model {
+
+    CompletionStage<ModelItem> getItemAsync(ObjectName name);
+
+    default TimeoutPolicy getTimeoutPolicy() {
+        return TimeoutPolicy.DEFAULT;
+    }
+
+    @Override
+    default ModelItem getItem(ObjectName name) throws InstanceNotFoundException {
+        return getTimeoutPolicy().awaitItem(getItemAsync(name), name);
+    }
+
+    default CompletionStage<Object> invokeAsync(ModelItem item, String operationName, Object[] params, String[] signature) {
+        if (item instanceof AsyncModelItem) {
+            return ((AsyncModelItem) item).invokeAsync(operationName, params, signature);
+        }
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        try {
+            future.complete(invoke(item, operationName, params, signature));
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
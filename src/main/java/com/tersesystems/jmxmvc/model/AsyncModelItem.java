@@ -0,0 +1,74 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import javax.management.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A model item that answers asynchronously, for items backed by message passing systems.
+ *
+ * The synchronous methods wait for the asynchronous ones with the default timeout policy; the
+ * view waits with the timeout policy of its model instead.
+ */
+public interface AsyncModelItem extends ModelItem {
+
+    CompletionStage<Object> getAttributeAsync(String attribute);
+
+    /**
+     * Returns the values of the given attributes, leaving out any attribute that could not be
+     * read.  The default implementation asks for every attribute at once and waits for them all.
+     */
+    default CompletionStage<AttributeList> getAttributesAsync(String[] attributes) {
+        final List<CompletableFuture<Attribute>> futures = new ArrayList<>(attributes.length);
+        for (String attribute : attributes) {
+            futures.add(getAttributeAsync(attribute).toCompletableFuture()
+                    .thenApply(value -> new Attribute(attribute, value))
+                    .exceptionally(t -> null));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            final AttributeList list = new AttributeList(attributes.length);
+            for (CompletableFuture<Attribute> future : futures) {
+                final Attribute attribute = future.join();
+                if (attribute != null) list.add(attribute);
+            }
+            return list;
+        });
+    }
+
+    CompletionStage<Object> invokeAsync(String operationName, Object[] params, String[] signature);
+
+    @Override
+    default Object getAttribute(String attribute)
+            throws MBeanException, AttributeNotFoundException, InstanceNotFoundException, ReflectionException {
+        return TimeoutPolicy.DEFAULT.awaitAttribute(getAttributeAsync(attribute), attribute);
+    }
+
+    @Override
+    default AttributeList getAttributes(String[] attributes) throws ReflectionException {
+        return TimeoutPolicy.DEFAULT.awaitAttributes(getAttributesAsync(attributes));
+    }
+
+    @Override
+    default Object invoke(String operationName, Object[] params, String[] signature) throws Exception {
+        return TimeoutPolicy.DEFAULT.await(invokeAsync(operationName, params, signature));
+    }
+}
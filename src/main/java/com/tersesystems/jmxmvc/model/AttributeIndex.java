@@ -0,0 +1,180 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * A sorted index of elements by the value of one attribute, kept up to date alongside the
+ * {@link ObjectNameIndex} so that queries on the attribute can start from the elements in a
+ * range instead of every element in the model.
+ *
+ * Only Numbers, Strings and Booleans are indexed, because those are the only values a
+ * {@link javax.management.QueryExp} can compare.  Numbers are kept as doubles, but a query
+ * compares them as longs when the left operand is a Long or Integer, truncating the other side,
+ * so numeric bounds are widened to the next whole number and NaN or infinite bounds are ignored.
+ * Like the name index, candidates are a superset of the matches: callers still have to evaluate
+ * the query against each one.
+ */
+public class AttributeIndex<T> {
+
+    private final String attribute;
+    private final Function<T, ?> extractor;
+
+    private final ConcurrentHashMap<T, Object> keys = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Double, Set<T>> numbers = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Set<T>> strings = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Boolean, Set<T>> booleans = new ConcurrentSkipListMap<>();
+
+    public AttributeIndex(String attribute, Function<T, ?> extractor) {
+        this.attribute = attribute;
+        this.extractor = extractor;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Reads the attribute from the element and files the element under its current value.
+     */
+    public void update(T element) {
+        final Object key = key(extractor.apply(element));
+        final Object previous = (key == null) ? keys.remove(element) : keys.put(element, key);
+        if (previous != null) {
+            if (previous.equals(key)) return;
+            removePosting(element, previous);
+        }
+        if (key != null) {
+            postings(key).compute(key, (k, posting) -> {
+                final Set<T> result = (posting == null) ? ConcurrentHashMap.newKeySet() : posting;
+                result.add(element);
+                return result;
+            });
+        }
+    }
+
+    public void remove(T element) {
+        final Object previous = keys.remove(element);
+        if (previous != null) {
+            removePosting(element, previous);
+        }
+    }
+
+    public void clear() {
+        keys.clear();
+        numbers.clear();
+        strings.clear();
+        booleans.clear();
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Returns the elements whose value could fall in the range.
+     */
+    public Collection<T> candidates(AttributeRange range) {
+        final Object low = key(range.getLow());
+        final Object high = key(range.getHigh());
+        if ((range.getLow() != null && low == null) || (range.getHigh() != null && high == null)) {
+            return Collections.emptySet();
+        }
+        if (low != null && high != null && low.getClass() != high.getClass()) {
+            return Collections.emptySet();
+        }
+        final Object kind = (low != null) ? low : high;
+        if (kind == null) {
+            return Collections.unmodifiableSet(keys.keySet());
+        }
+        if (kind instanceof Double) {
+            return collect(numbers, widen((Double) low, -1), true, widen((Double) high, 1), true);
+        }
+        if (kind instanceof String) {
+            return collect(strings, (String) low, range.isLowInclusive(), (String) high, range.isHighInclusive());
+        }
+        return collect(booleans, (Boolean) low, range.isLowInclusive(), (Boolean) high, range.isHighInclusive());
+    }
+
+    private <K extends Comparable<K>> Collection<T> collect(ConcurrentSkipListMap<K, Set<T>> map,
+                                                             K low, boolean lowInclusive,
+                                                             K high, boolean highInclusive) {
+        if (low != null && high != null && low.equals(high)) {
+            if (!lowInclusive || !highInclusive) return Collections.emptySet();
+            final Set<T> posting = map.get(low);
+            return (posting == null) ? Collections.emptySet() : Collections.unmodifiableSet(posting);
+        }
+        if (low != null && high != null && low.compareTo(high) > 0) {
+            return Collections.emptySet();
+        }
+        NavigableMap<K, Set<T>> sub = map;
+        if (low != null) sub = sub.tailMap(low, lowInclusive);
+        if (high != null) sub = sub.headMap(high, highInclusive);
+
+        final Set<T> result = new HashSet<>();
+        for (Set<T> posting : sub.values()) {
+            result.addAll(posting);
+        }
+        return result;
+    }
+
+    /**
+     * Moves a numeric bound one whole number outwards, or drops it if it is not finite.
+     */
+    static Double widen(Double bound, int direction) {
+        if (bound == null || bound.isNaN() || bound.isInfinite()) return null;
+        return (direction < 0) ? Math.floor(bound) - 1 : Math.ceil(bound) + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K> ConcurrentSkipListMap<K, Set<T>> postings(Object key) {
+        if (key instanceof Double) return (ConcurrentSkipListMap<K, Set<T>>) (Object) numbers;
+        if (key instanceof String) return (ConcurrentSkipListMap<K, Set<T>>) (Object) strings;
+        return (ConcurrentSkipListMap<K, Set<T>>) (Object) booleans;
+    }
+
+    private void removePosting(T element, Object key) {
+        postings(key).computeIfPresent(key, (k, posting) -> {
+            posting.remove(element);
+            return posting.isEmpty() ? null : posting;
+        });
+    }
+
+    /**
+     * The value as it is kept in the index, or null if it can't be queried.  Zero is folded so
+     * that -0.0 and 0.0, which a query treats as equal, share a posting.
+     */
+    private static Object key(Object value) {
+        if (value instanceof Number) {
+            final double d = ((Number) value).doubleValue();
+            return (d == 0.0) ? 0.0 : d;
+        }
+        if (value instanceof String || value instanceof Boolean) {
+            return value;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import java.util.Objects;
+
+/**
+ * A constraint on the value of one attribute, which a model with an {@link AttributeIndex} on
+ * that attribute can use to find candidates for a query.
+ *
+ * Bounds are either Numbers, Strings or Booleans, as in {@link javax.management.Query}; a null
+ * bound is unbounded.  A range only narrows the candidates: the query is still evaluated against
+ * each of them.
+ */
+public final class AttributeRange {
+
+    private final String attribute;
+    private final Object low;
+    private final boolean lowInclusive;
+    private final Object high;
+    private final boolean highInclusive;
+
+    private AttributeRange(String attribute, Object low, boolean lowInclusive, Object high, boolean highInclusive) {
+        this.attribute = Objects.requireNonNull(attribute, "Null attribute");
+        this.low = low;
+        this.lowInclusive = lowInclusive;
+        this.high = high;
+        this.highInclusive = highInclusive;
+    }
+
+    public static AttributeRange equalTo(String attribute, Object value) {
+        Objects.requireNonNull(value, "Null value");
+        return new AttributeRange(attribute, value, true, value, true);
+    }
+
+    public static AttributeRange greaterThan(String attribute, Object value, boolean inclusive) {
+        Objects.requireNonNull(value, "Null value");
+        return new AttributeRange(attribute, value, inclusive, null, false);
+    }
+
+    public static AttributeRange lessThan(String attribute, Object value, boolean inclusive) {
+        Objects.requireNonNull(value, "Null value");
+        return new AttributeRange(attribute, null, false, value, inclusive);
+    }
+
+    public static AttributeRange between(String attribute, Object low, Object high) {
+        Objects.requireNonNull(low, "Null low");
+        Objects.requireNonNull(high, "Null high");
+        return new AttributeRange(attribute, low, true, high, true);
+    }
+
+    /**
+     * The strings that start with the prefix.
+     */
+    public static AttributeRange startsWith(String attribute, String prefix) {
+        Objects.requireNonNull(prefix, "Null prefix");
+        return new AttributeRange(attribute, prefix, true, successor(prefix), false);
+    }
+
+    /**
+     * The smallest string greater than every string with this prefix, or null if there is none.
+     */
+    static String successor(String prefix) {
+        final StringBuilder builder = new StringBuilder(prefix);
+        for (int i = builder.length() - 1; i >= 0; i--) {
+            final char c = builder.charAt(i);
+            if (c != Character.MAX_VALUE) {
+                builder.setCharAt(i, (char) (c + 1));
+                builder.setLength(i + 1);
+                return builder.toString();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the values in both this range and the other, or null if the ranges are on different
+     * attributes or their bounds can't be compared.
+     */
+    public AttributeRange and(AttributeRange other) {
+        if (!attribute.equals(other.attribute)) return null;
+        final Object kind = (low != null) ? low : high;
+        final Object otherKind = (other.low != null) ? other.low : other.high;
+        if (compare(kind, otherKind) == null) return null;
+
+        Object newLow = low;
+        boolean newLowInclusive = lowInclusive;
+        if (other.low != null) {
+            final Integer c = (low == null) ? Integer.valueOf(-1) : compare(low, other.low);
+            if (c < 0 || (c == 0 && !other.lowInclusive)) {
+                newLow = other.low;
+                newLowInclusive = other.lowInclusive;
+            }
+        }
+        Object newHigh = high;
+        boolean newHighInclusive = highInclusive;
+        if (other.high != null) {
+            final Integer c = (high == null) ? Integer.valueOf(1) : compare(high, other.high);
+            if (c > 0 || (c == 0 && !other.highInclusive)) {
+                newHigh = other.high;
+                newHighInclusive = other.highInclusive;
+            }
+        }
+        return new AttributeRange(attribute, newLow, newLowInclusive, newHigh, newHighInclusive);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Integer compare(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+        }
+        if ((a instanceof String && b instanceof String) || (a instanceof Boolean && b instanceof Boolean)) {
+            return ((Comparable<Object>) a).compareTo(b);
+        }
+        return null;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public Object getLow() {
+        return low;
+    }
+
+    public boolean isLowInclusive() {
+        return lowInclusive;
+    }
+
+    public Object getHigh() {
+        return high;
+    }
+
+    public boolean isHighInclusive() {
+        return highInclusive;
+    }
+
+    @Override
+    public String toString() {
+        return (lowInclusive ? "[" : "(") + (low == null ? "" : low) + ", " + (high == null ? "" : high)
+                + (highInclusive ? "]" : ")") + " on " + attribute;
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The values of a fixed set of attributes for a set of MBeans, stored by column.  Row {@code i}
+ * holds the values for {@code getName(i)}; a value that could not be read is null.  A row whose
+ * MBean could not be read at all is kept, with null values and the cause in {@link #getFailure(int)}.
+ */
+public final class AttributeTable {
+
+    private final String[] attributes;
+    private final ObjectName[] names;
+    private final Object[][] columns;
+    private final Throwable[] failures;
+
+    private AttributeTable(String[] attributes, ObjectName[] names, Object[][] columns, Throwable[] failures) {
+        this.attributes = attributes;
+        this.names = names;
+        this.columns = columns;
+        this.failures = failures;
+    }
+
+    public static Builder builder(String[] attributes) {
+        return new Builder(attributes);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String[] getAttributeNames() {
+        return attributes.clone();
+    }
+
+    public ObjectName getName(int row) {
+        return names[row];
+    }
+
+    public List<ObjectName> getNames() {
+        return Arrays.asList(names);
+    }
+
+    public Object getValue(int row, int column) {
+        return columns[column][row];
+    }
+
+    /**
+     * Returns why the row could not be read, or null if it was.
+     */
+    public Throwable getFailure(int row) {
+        return failures[row];
+    }
+
+    public boolean isFailed(int row) {
+        return failures[row] != null;
+    }
+
+    /**
+     * Returns the values of the attribute, one per row, or null if the attribute was not exported.
+     */
+    public List<Object> getColumn(String attribute) {
+        for (int i = 0; i < attributes.length; i++) {
+            if (attributes[i].equals(attribute)) {
+                return Arrays.asList(columns[i]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns one row as an AttributeList, leaving out values that could not be read.
+     */
+    public AttributeList getRow(int row) {
+        final AttributeList list = new AttributeList(attributes.length);
+        for (int i = 0; i < attributes.length; i++) {
+            final Object value = columns[i][row];
+            if (value != null) {
+                list.add(new Attribute(attributes[i], value));
+            }
+        }
+        return list;
+    }
+
+    // Lays out the values of the list in the order of the attribute names.
+    static Object[] values(String[] attributes, AttributeList list) {
+        final Object[] values = new Object[attributes.length];
+        for (Attribute attribute : list.asList()) {
+            for (int i = 0; i < attributes.length; i++) {
+                if (attributes[i].equals(attribute.getName())) {
+                    values[i] = attribute.getValue();
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        int failed = 0;
+        for (Throwable failure : failures) {
+            if (failure != null) failed++;
+        }
+        return "AttributeTable(attributes = " + Arrays.toString(attributes) + ", size = " + names.length
+                + ", failed = " + failed + ")";
+    }
+
+    public static final class Builder {
+        private final String[] attributes;
+        private final List<ObjectName> names = new ArrayList<>();
+        private final List<Object[]> rows = new ArrayList<>();
+        private final List<Throwable> failures = new ArrayList<>();
+
+        private Builder(String[] attributes) {
+            this.attributes = attributes.clone();
+        }
+
+        public String[] getAttributeNames() {
+            return attributes;
+        }
+
+        /**
+         * Adds a row.  The values are in the same order as the attribute names.
+         */
+        public Builder addRow(ObjectName name, Object[] values) {
+            if (values.length != attributes.length) {
+                throw new IllegalArgumentException("Expected " + attributes.length + " values but got " + values.length);
+            }
+            names.add(name);
+            rows.add(values);
+            failures.add(null);
+            return this;
+        }
+
+        /**
+         * Adds a row from an AttributeList, such as the result of getAttributes.
+         */
+        public Builder addRow(ObjectName name, AttributeList list) {
+            return addRow(name, values(attributes, list));
+        }
+
+        /**
+         * Adds a row for an MBean that could not be read, such as one that failed or timed out.
+         */
+        public Builder addFailedRow(ObjectName name, Throwable failure) {
+            if (failure == null) {
+                throw new IllegalArgumentException("failure cannot be null");
+            }
+            names.add(name);
+            rows.add(new Object[attributes.length]);
+            failures.add(failure);
+            return this;
+        }
+
+        public AttributeTable build() {
+            final int size = names.size();
+            final Object[][] columns = new Object[attributes.length][size];
+            for (int row = 0; row < size; row++) {
+                final Object[] values = rows.get(row);
+                for (int column = 0; column < attributes.length; column++) {
+                    columns[column][row] = values[column];
+                }
+            }
+            return new AttributeTable(attributes, names.toArray(new ObjectName[0]), columns,
+                    failures.toArray(new Throwable[0]));
+        }
+    }
+}
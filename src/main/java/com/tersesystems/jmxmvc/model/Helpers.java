@@ -18,58 +18,26 @@
 package com.tersesystems.jmxmvc.model;
 
 import javax.management.ObjectName;
-import java.util.Map;
+import java.nio.CharBuffer;
 
 public class Helpers {
 
+    /**
+     * Matches a name against a pattern.  This compiles the pattern on every call: when matching
+     * many names against the same pattern, compile it once with {@link ObjectNamePattern#compile}.
+     */
     public static boolean matches(ObjectName name,
                             ObjectName pattern) {
-        if (pattern == null) return true;
-        final String od = name.getDomain();
-        if (!od.equals("")) {
-            final String domain = pattern.getDomain();
-            if (!wildmatch(od.toCharArray(), domain.toCharArray(), 0, 0))
-                return false;
-        }
-        if (pattern.isPropertyPattern()) {
-            for (Map.Entry<String, String> e : pattern.getKeyPropertyList().entrySet()) {
-                final String key = e.getKey();
-                final String value = e.getValue();
-                final String v = name.getKeyProperty(key);
-                if (v == null && value != null) return false;
-                if (v.equals(value)) continue;
-                return false;
-            }
-            return true;
-        } else {
-            final String p1 = name.getCanonicalKeyPropertyListString();
-            final String p2 = pattern.getCanonicalKeyPropertyListString();
-            if (p1 == null) return (p2 == null);
-            if (p2 == null) return p1.equals("");
-            return (p1.equals(p2));
-        }
+        return ObjectNamePattern.compile(pattern).matches(name);
     }
 
+    /**
+     * @deprecated use {@link WildcardPattern}, which does not recurse or copy its input.
+     */
+    @Deprecated
     public static boolean wildmatch(char[] s, char[] p, int si, int pi) {
-        char c;
-        final int slen = s.length;
-        final int plen = p.length;
-
-        while (pi < plen) {            // While still string
-            c = p[pi++];
-            if (c == '?') {
-                if (++si > slen) return false;
-            } else if (c == '*') {        // Wildcard
-                if (pi >= plen) return true;
-                do {
-                    if (wildmatch(s, p, si, pi)) return true;
-                } while (++si < slen);
-                return false;
-            } else {
-                if (si >= slen || c != s[si++]) return false;
-            }
-        }
-        return (si == slen);
+        return WildcardPattern.compile(new String(p, pi, p.length - pi))
+                .matches(CharBuffer.wrap(s, si, Math.max(s.length - si, 0)));
     }
 
 }
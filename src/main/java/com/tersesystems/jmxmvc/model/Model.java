@@ -18,8 +18,10 @@
 package com.tersesystems.jmxmvc.model;
 
 import javax.management.*;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 public interface Model {
 
@@ -31,10 +33,97 @@ public interface Model {
 
     ModelItem getItem(ObjectName name) throws InstanceNotFoundException;
 
+    /**
+     * Returns true if the model has an MBean with this name.  The default implementation calls
+     * {@link #getItem(ObjectName)}; models that can answer without building an item, or without
+     * an exception for a miss, should override it.
+     */
+    default boolean contains(ObjectName name) {
+        try {
+            return getItem(name) != null;
+        } catch (InstanceNotFoundException e) {
+            return false;
+        }
+    }
+
     Set<ObjectInstance> queryMBeans(ObjectName name, Function<ObjectName, Boolean> queryFunction);
 
     Set<ObjectName> queryNames(ObjectName name, Function<ObjectName, Boolean> queryFunction);
 
+    /**
+     * Returns the names matching the query, which the view has found to constrain the given
+     * attributes to the given ranges.  A model with attribute indexes can start from the elements
+     * in the narrowest range; the query function must still be applied to every candidate.  The
+     * default implementation ignores the ranges.
+     */
+    default Set<ObjectName> queryNames(ObjectName name, List<AttributeRange> ranges,
+                                       Function<ObjectName, Boolean> queryFunction) {
+        return queryNames(name, queryFunction);
+    }
+
+    /**
+     * Returns the instances matching the query, using the ranges as for
+     * {@link #queryNames(ObjectName, List, Function)}.
+     */
+    default Set<ObjectInstance> queryMBeans(ObjectName name, List<AttributeRange> ranges,
+                                            Function<ObjectName, Boolean> queryFunction) {
+        return queryMBeans(name, queryFunction);
+    }
+
+    /**
+     * Returns the names matching the query lazily, so that a caller can page through a large model
+     * without the whole result set being held in memory.  The default implementation streams the
+     * result of {@link #queryNames(ObjectName, Function)}.
+     */
+    default Stream<ObjectName> streamNames(ObjectName name, Function<ObjectName, Boolean> queryFunction) {
+        return queryNames(name, queryFunction).stream();
+    }
+
+    /**
+     * Returns the instances matching the query lazily.  The default implementation streams the
+     * result of {@link #queryMBeans(ObjectName, Function)}.
+     */
+    default Stream<ObjectInstance> streamMBeans(ObjectName name, Function<ObjectName, Boolean> queryFunction) {
+        return queryMBeans(name, queryFunction).stream();
+    }
+
+    /**
+     * Returns the names matching the query lazily, using the ranges as for
+     * {@link #queryNames(ObjectName, List, Function)}.
+     */
+    default Stream<ObjectName> streamNames(ObjectName name, List<AttributeRange> ranges,
+                                           Function<ObjectName, Boolean> queryFunction) {
+        return streamNames(name, queryFunction);
+    }
+
+    /**
+     * Returns the instances matching the query lazily, using the ranges as for
+     * {@link #queryNames(ObjectName, List, Function)}.
+     */
+    default Stream<ObjectInstance> streamMBeans(ObjectName name, List<AttributeRange> ranges,
+                                                Function<ObjectName, Boolean> queryFunction) {
+        return streamMBeans(name, queryFunction);
+    }
+
+    /**
+     * Returns the given attributes of every MBean matching the pattern, in one pass over the
+     * model.  The default implementation queries the names and reads each item in turn; an item
+     * that fails to read is kept as a failed row.
+     */
+    default AttributeTable exportAttributes(ObjectName pattern, String[] attributes) throws ReflectionException {
+        final AttributeTable.Builder table = AttributeTable.builder(attributes);
+        for (ObjectName name : queryNames(pattern, n -> true)) {
+            try {
+                table.addRow(name, getItem(name).getAttributes(attributes));
+            } catch (InstanceNotFoundException e) {
+                // Gone since the query.
+            } catch (ReflectionException | RuntimeException e) {
+                table.addFailedRow(name, e);
+            }
+        }
+        return table.build();
+    }
+
     String getDefaultDomain();
 
     String[] getDomains();
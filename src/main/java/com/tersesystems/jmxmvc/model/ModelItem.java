@@ -33,6 +33,75 @@ public interface ModelItem {
             throws MBeanException, AttributeNotFoundException,
             InstanceNotFoundException, ReflectionException;
 
+    /**
+     * Returns the values of the given attributes, leaving out any attribute that could not be
+     * read.  The default implementation calls {@link #getAttribute(String)} for each attribute;
+     * items backed by a remote or expensive source should override it to fetch them all at once.
+     */
+    default AttributeList getAttributes(final String[] attributes) throws ReflectionException {
+        final AttributeList list = new AttributeList(attributes.length);
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (Exception x) {
+                // Skip the attribute that couldn't be obtained.
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Sets the attribute.  The view only calls this for attributes whose MBeanAttributeInfo is
+     * writable.  The default implementation has no writable attributes.
+     */
+    default void setAttribute(final Attribute attribute)
+            throws AttributeNotFoundException, InvalidAttributeValueException,
+            MBeanException, ReflectionException {
+        throw new AttributeNotFoundException(attribute.getName() + " not accessible");
+    }
+
+    /**
+     * Sets the attributes and returns the ones that were set, leaving out any attribute that
+     * could not be set.  The default implementation calls {@link #setAttribute(Attribute)} for
+     * each attribute; items that can apply a batch at once should override it.
+     */
+    default AttributeList setAttributes(final AttributeList attributes) {
+        final AttributeList list = new AttributeList(attributes.size());
+        for (Attribute attribute : attributes.asList()) {
+            try {
+                setAttribute(attribute);
+                list.add(attribute);
+            } catch (Exception x) {
+                // Skip the attribute that couldn't be set.
+            }
+        }
+        return list;
+    }
+
     boolean isInstanceOf(String className);
 
+    /**
+     * Returns the MBeanAttributeInfo for the attribute, or null if there is no such attribute.
+     */
+    default MBeanAttributeInfo getAttributeInfo(String attribute) {
+        for (MBeanAttributeInfo attributeInfo : getMBeanInfo().getAttributes()) {
+            if (attributeInfo.getName().equals(attribute)) {
+                return attributeInfo;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the MBeanOperationInfo for the operation, or null if there is no such operation.
+     */
+    default MBeanOperationInfo getOperationInfo(String operation) {
+        for (MBeanOperationInfo operationInfo : getMBeanInfo().getOperations()) {
+            if (operationInfo.getName().equals(operation)) {
+                return operationInfo;
+            }
+        }
+        return null;
+    }
+
 }
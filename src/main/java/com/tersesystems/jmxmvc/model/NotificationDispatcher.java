@@ -0,0 +1,270 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import org.slf4j.Logger;
+
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerNotification;
+import javax.management.ObjectName;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static javax.management.MBeanServerNotification.REGISTRATION_NOTIFICATION;
+import static javax.management.MBeanServerNotification.UNREGISTRATION_NOTIFICATION;
+
+/**
+ * Delivers registration and unregistration notifications for a model on a dedicated thread, so
+ * the thread that discovers a change never runs notification listeners.
+ *
+ * Registrations wait on a bounded queue.  When the queue is full, {@link #submit(String, ObjectName)}
+ * drops a registration and returns false rather than blocking.  Unregistrations are never dropped,
+ * even past the capacity, because the name may already have been resolved and cached by a view
+ * that only learns of its removal from this notification.  For the same reason, if a name is
+ * unregistered within the coalescing window of its registration, only the registration is
+ * withheld.  Notifications are delivered in submission order, and the delegate stamps each with
+ * its sequence number.
+ */
+public class NotificationDispatcher implements AutoCloseable {
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    public static final int DEFAULT_CAPACITY = 65536;
+
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final MBeanServerDelegate delegate;
+    private final int capacity;
+    private final long windowNanos;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final ConcurrentHashMap<ObjectName, Pending> registrations = new ConcurrentHashMap<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean idle = false;
+
+    public NotificationDispatcher(MBeanServerDelegate delegate) {
+        this(delegate, DEFAULT_CAPACITY, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param delegate the delegate to send notifications through.
+     * @param capacity the most notifications that may wait for delivery before registrations are
+     *                 dropped.
+     * @param window how long a registration is held back so that an unregistration can cancel it,
+     *               or 0 to deliver as soon as possible.
+     */
+    public NotificationDispatcher(MBeanServerDelegate delegate, int capacity, long window, TimeUnit unit) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        if (window < 0) {
+            throw new IllegalArgumentException("window must not be negative: " + window);
+        }
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.windowNanos = unit.toNanos(window);
+        this.thread = new Thread(this::run, "jmxmvc-notification-dispatcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a notification of the given type for the name.
+     *
+     * @return false if the notification was dropped because the dispatcher is closed, or because
+     * it is a registration and the queue is full.
+     */
+    public boolean submit(String type, ObjectName name) {
+        submitted.incrementAndGet();
+        if (!running) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        if (windowNanos > 0 && UNREGISTRATION_NOTIFICATION.equals(type)) {
+            final Pending registration = registrations.remove(name);
+            if (registration != null && registration.cancel()) {
+                // The unregistration takes the cancelled registration's place in the count.
+                coalesced.incrementAndGet();
+                enqueue(type, name);
+                return true;
+            }
+        }
+
+        if (depth.incrementAndGet() > capacity && !UNREGISTRATION_NOTIFICATION.equals(type)) {
+            depth.decrementAndGet();
+            dropped.incrementAndGet();
+            return false;
+        }
+        enqueue(type, name);
+        return true;
+    }
+
+    private void enqueue(String type, ObjectName name) {
+        final Pending pending = new Pending(type, name, System.nanoTime());
+        if (windowNanos > 0 && REGISTRATION_NOTIFICATION.equals(type)) {
+            registrations.put(name, pending);
+        }
+        queue.offer(pending);
+        if (idle) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Queues a notification of the given type for each name.
+     *
+     * @return the number of notifications accepted.
+     */
+    public int submitAll(String type, Collection<ObjectName> names) {
+        int accepted = 0;
+        for (ObjectName name : names) {
+            if (submit(type, name)) accepted++;
+        }
+        return accepted;
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of registrations that were not delivered because the name was
+     * unregistered within the coalescing window.
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops accepting notifications, delivers the ones already queued without waiting out the
+     * coalescing window, and waits for the dispatcher thread to finish.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            final Pending pending = queue.peek();
+            if (pending == null) {
+                idle = true;
+                if (running && queue.isEmpty()) {
+                    LockSupport.parkNanos(this, IDLE_NANOS);
+                }
+                idle = false;
+                continue;
+            }
+
+            if (running && windowNanos > 0) {
+                final long wait = pending.submitted + windowNanos - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(this, wait);
+                    continue;
+                }
+            }
+
+            queue.poll();
+            if (!pending.claim()) {
+                continue;
+            }
+            depth.decrementAndGet();
+            if (windowNanos > 0) {
+                registrations.remove(pending.name, pending);
+            }
+            deliver(pending);
+        }
+    }
+
+    private void deliver(Pending pending) {
+        try {
+            delegate.sendNotification(new MBeanServerNotification(pending.type, MBeanServerDelegate.DELEGATE_NAME, 0, pending.name));
+            delivered.incrementAndGet();
+        } catch (RuntimeException e) {
+            logger.error("Cannot deliver " + pending.type + " for " + pending.name, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationDispatcher(submitted = " + submitted + ", delivered = " + delivered
+                + ", dropped = " + dropped + ", coalesced = " + coalesced + ", depth = " + depth + ")";
+    }
+
+    // Either the dispatcher claims it for delivery or an unregistration cancels it, never both.
+    private static final class Pending {
+        final String type;
+        final ObjectName name;
+        final long submitted;
+        final AtomicBoolean done = new AtomicBoolean();
+
+        Pending(String type, ObjectName name, long submitted) {
+            this.type = type;
+            this.name = name;
+            this.submitted = submitted;
+        }
+
+        boolean claim() {
+            return done.compareAndSet(false, true);
+        }
+
+        boolean cancel() {
+            return done.compareAndSet(false, true);
+        }
+    }
+}
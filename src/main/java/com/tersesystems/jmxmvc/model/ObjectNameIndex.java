@@ -0,0 +1,133 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import javax.management.ObjectName;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An incrementally maintained index of elements by object name.
+ *
+ * Holds the generated object name for each element, the element for each object name, and an
+ * inverted index from each key property value to the elements that have it, so that a query can
+ * start from the smallest set of candidates instead of every element in the model.
+ *
+ * Candidates are a superset of the matches: callers still have to match each candidate against
+ * the pattern.
+ */
+public class ObjectNameIndex<T> {
+
+    private final ConcurrentHashMap<T, ObjectName> names = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ObjectName, T> elements = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Set<T>>> properties = new ConcurrentHashMap<>();
+
+    public void add(T element, ObjectName name) {
+        final ObjectName previous = names.put(element, name);
+        if (previous != null) {
+            if (previous.equals(name)) return;
+            elements.remove(previous, element);
+            removePostings(element, previous);
+        }
+        elements.put(name, element);
+        for (Map.Entry<String, String> e : name.getKeyPropertyList().entrySet()) {
+            properties.computeIfAbsent(e.getKey(), k -> new ConcurrentHashMap<>())
+                    .compute(e.getValue(), (v, posting) -> {
+                        final Set<T> result = (posting == null) ? ConcurrentHashMap.newKeySet() : posting;
+                        result.add(element);
+                        return result;
+                    });
+        }
+    }
+
+    public ObjectName remove(T element) {
+        final ObjectName name = names.remove(element);
+        if (name != null) {
+            elements.remove(name, element);
+            removePostings(element, name);
+        }
+        return name;
+    }
+
+    public void clear() {
+        names.clear();
+        elements.clear();
+        properties.clear();
+    }
+
+    public ObjectName getName(T element) {
+        return names.get(element);
+    }
+
+    public T getElement(ObjectName name) {
+        return elements.get(name);
+    }
+
+    public boolean contains(ObjectName name) {
+        return elements.containsKey(name);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public Collection<T> getElements() {
+        return Collections.unmodifiableSet(names.keySet());
+    }
+
+    /**
+     * Returns the elements that could match the pattern, or all elements if the pattern is null.
+     */
+    public Collection<T> candidates(ObjectName pattern) {
+        if (pattern == null) {
+            return getElements();
+        }
+        if (!pattern.isPattern()) {
+            final T element = elements.get(pattern);
+            return (element == null) ? Collections.emptySet() : Collections.singleton(element);
+        }
+
+        Collection<T> smallest = null;
+        for (Map.Entry<String, String> e : pattern.getKeyPropertyList().entrySet()) {
+            if (pattern.isPropertyValuePattern(e.getKey())) continue;
+            final Map<String, Set<T>> values = properties.get(e.getKey());
+            final Set<T> posting = (values == null) ? null : values.get(e.getValue());
+            if (posting == null) {
+                return Collections.emptySet();
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return (smallest == null) ? getElements() : Collections.unmodifiableCollection(smallest);
+    }
+
+    private void removePostings(T element, ObjectName name) {
+        for (Map.Entry<String, String> e : name.getKeyPropertyList().entrySet()) {
+            final ConcurrentHashMap<String, Set<T>> values = properties.get(e.getKey());
+            if (values == null) continue;
+            values.computeIfPresent(e.getValue(), (v, posting) -> {
+                posting.remove(element);
+                return posting.isEmpty() ? null : posting;
+            });
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import javax.management.ObjectName;
+import java.util.Map;
+
+/**
+ * An object name pattern compiled once per query, so that matching each element does not
+ * allocate.
+ *
+ * A null pattern matches every name.  Names with an empty domain match any domain.
+ */
+public final class ObjectNamePattern {
+
+    private static final ObjectNamePattern ALL = new ObjectNamePattern(null);
+
+    private final ObjectName pattern;
+    private final WildcardPattern domain;
+    private final boolean propertyPattern;
+    private final boolean propertyListPattern;
+    private final String[] keys;
+    private final String[] values;
+    private final WildcardPattern[] valuePatterns;
+    private final String canonicalProperties;
+
+    private ObjectNamePattern(ObjectName pattern) {
+        this.pattern = pattern;
+        if (pattern == null) {
+            this.domain = WildcardPattern.any();
+            this.propertyPattern = true;
+            this.propertyListPattern = true;
+            this.keys = new String[0];
+            this.values = new String[0];
+            this.valuePatterns = new WildcardPattern[0];
+            this.canonicalProperties = null;
+            return;
+        }
+
+        this.domain = WildcardPattern.compile(pattern.getDomain());
+        this.propertyPattern = pattern.isPropertyPattern();
+        this.propertyListPattern = pattern.isPropertyListPattern();
+        final Map<String, String> properties = pattern.getKeyPropertyList();
+        this.keys = new String[properties.size()];
+        this.values = new String[properties.size()];
+        this.valuePatterns = new WildcardPattern[properties.size()];
+        int i = 0;
+        for (Map.Entry<String, String> e : properties.entrySet()) {
+            keys[i] = e.getKey();
+            values[i] = e.getValue();
+            if (pattern.isPropertyValuePattern(e.getKey())) {
+                valuePatterns[i] = WildcardPattern.compile(e.getValue());
+            }
+            i++;
+        }
+        this.canonicalProperties = pattern.getCanonicalKeyPropertyListString();
+    }
+
+    public static ObjectNamePattern compile(ObjectName pattern) {
+        return (pattern == null) ? ALL : new ObjectNamePattern(pattern);
+    }
+
+    public ObjectName getPattern() {
+        return pattern;
+    }
+
+    public WildcardPattern getDomainPattern() {
+        return domain;
+    }
+
+    public boolean matchesDomain(String d) {
+        return domain.matches(d);
+    }
+
+    public boolean matches(ObjectName name) {
+        if (pattern == null) return true;
+        final String od = name.getDomain();
+        if (!od.isEmpty() && !domain.matches(od)) return false;
+
+        if (propertyPattern) {
+            if (!propertyListPattern && name.getKeyPropertyList().size() != keys.length) {
+                return false;
+            }
+            for (int i = 0; i < keys.length; i++) {
+                final String v = name.getKeyProperty(keys[i]);
+                if (v == null) return false;
+                if (valuePatterns[i] != null) {
+                    if (!valuePatterns[i].matches(v)) return false;
+                } else if (!v.equals(values[i])) {
+                    return false;
+                }
+            }
+            return true;
+        } else {
+            final String p1 = name.getCanonicalKeyPropertyListString();
+            if (p1 == null) return (canonicalProperties == null);
+            if (canonicalProperties == null) return p1.equals("");
+            return p1.equals(canonicalProperties);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(pattern);
+    }
+}
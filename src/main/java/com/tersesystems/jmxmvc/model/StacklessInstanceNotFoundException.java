@@ -0,0 +1,50 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.ObjectName;
+
+/**
+ * An InstanceNotFoundException that does not capture a stack trace, for models that answer
+ * lookups of names they do not have often enough for the stack walk to show up.  It is
+ * serialized as a plain InstanceNotFoundException, so remote clients never need this class.
+ */
+public class StacklessInstanceNotFoundException extends InstanceNotFoundException {
+
+    private static final long serialVersionUID = 1L;
+
+    public StacklessInstanceNotFoundException(String message) {
+        super(message);
+    }
+
+    public static StacklessInstanceNotFoundException of(ObjectName name) {
+        return new StacklessInstanceNotFoundException(name + ": MBean not found.");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+    private Object writeReplace() {
+        final InstanceNotFoundException replacement = new InstanceNotFoundException(getMessage());
+        replacement.setStackTrace(getStackTrace());
+        return replacement;
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import javax.management.*;
+import java.util.concurrent.*;
+
+/**
+ * How long a synchronous JMX call may wait for an asynchronous model, and how a failure or a
+ * timeout is reported through the checked exceptions of the MBeanServer contract.
+ *
+ * A call that waits more than once, for the item and then for its attribute, starts a
+ * {@link Deadline} so that the waits share one timeout instead of getting one each.
+ */
+public final class TimeoutPolicy {
+
+    public static final TimeoutPolicy DEFAULT = new TimeoutPolicy(1, TimeUnit.SECONDS);
+
+    private static final ThreadLocal<Deadline> deadline = new ThreadLocal<>();
+
+    private final long timeout;
+    private final TimeUnit unit;
+
+    public TimeoutPolicy(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("timeout must be positive: " + timeout);
+        }
+        this.timeout = timeout;
+        this.unit = unit;
+    }
+
+    public static TimeoutPolicy ofMillis(long millis) {
+        return new TimeoutPolicy(millis, TimeUnit.MILLISECONDS);
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public TimeUnit getUnit() {
+        return unit;
+    }
+
+    /**
+     * Starts a deadline for the calling thread: until it is closed, every wait on this thread ends
+     * by this policy's timeout from now, or by the enclosing deadline if that ends sooner.
+     */
+    public Deadline startDeadline() {
+        final Deadline outer = deadline.get();
+        long at = System.nanoTime() + unit.toNanos(timeout);
+        if (outer != null && outer.at - at < 0) {
+            at = outer.at;
+        }
+        final Deadline d = new Deadline(outer, at);
+        deadline.set(d);
+        return d;
+    }
+
+    /**
+     * Waits for the stage to complete, rethrowing the exception it completed with.  If it does not
+     * complete in time it is cancelled and a TimeoutException is thrown.
+     */
+    public <T> T await(CompletionStage<T> stage) throws Exception {
+        final CompletableFuture<T> future = stage.toCompletableFuture();
+        final Deadline current = deadline.get();
+        final long nanos = (current == null)
+                ? unit.toNanos(timeout)
+                : Math.max(0L, current.at - System.nanoTime());
+        try {
+            return future.get(nanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    public ModelItem awaitItem(CompletionStage<? extends ModelItem> stage, ObjectName name)
+            throws InstanceNotFoundException {
+        try {
+            return await(stage);
+        } catch (InstanceNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            final InstanceNotFoundException x = new InstanceNotFoundException(name + ": " + describe(e));
+            x.initCause(e);
+            throw x;
+        }
+    }
+
+    public Object awaitAttribute(CompletionStage<?> stage, String attribute)
+            throws MBeanException, AttributeNotFoundException, InstanceNotFoundException, ReflectionException {
+        try {
+            return await(stage);
+        } catch (MBeanException | AttributeNotFoundException | InstanceNotFoundException | ReflectionException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MBeanException(e, attribute + ": " + describe(e));
+        }
+    }
+
+    public AttributeList awaitAttributes(CompletionStage<AttributeList> stage) throws ReflectionException {
+        try {
+            return await(stage);
+        } catch (ReflectionException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ReflectionException(e, describe(e));
+        }
+    }
+
+    private String describe(Exception e) {
+        if (e instanceof TimeoutException) {
+            return "no answer after " + timeout + " " + unit.toString().toLowerCase();
+        }
+        return String.valueOf(e.getMessage());
+    }
+
+    private static Exception unwrap(Throwable t) {
+        while ((t instanceof ExecutionException || t instanceof CompletionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return (t instanceof Exception) ? (Exception) t : new ExecutionException(t);
+    }
+
+    @Override
+    public String toString() {
+        return "TimeoutPolicy(" + timeout + " " + unit + ")";
+    }
+
+    /**
+     * A deadline shared by the waits of one call on one thread.  Close it on the same thread, in
+     * the reverse order of starting, with try-with-resources.
+     */
+    public static final class Deadline implements AutoCloseable {
+        private final Deadline outer;
+        private final long at;
+
+        private Deadline(Deadline outer, long at) {
+            this.outer = outer;
+            this.at = at;
+        }
+
+        @Override
+        public void close() {
+            if (outer == null) {
+                deadline.remove();
+            } else {
+                deadline.set(outer);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An MBeanInfo shared by every element of one type, with its attribute names and lookup maps
+ * computed once.  See {@link AbstractModel#getTypeInfo(Object)}.
+ */
+public final class TypeInfo {
+
+    private final MBeanInfo mBeanInfo;
+    private final String[] attributeNames;
+    private final Map<String, MBeanAttributeInfo> attributes;
+    private final Map<String, MBeanOperationInfo> operations;
+
+    public TypeInfo(MBeanInfo mBeanInfo) {
+        this.mBeanInfo = mBeanInfo;
+
+        final MBeanAttributeInfo[] attributeInfos = mBeanInfo.getAttributes();
+        final Map<String, MBeanAttributeInfo> attributes = new HashMap<>();
+        this.attributeNames = new String[attributeInfos.length];
+        for (int i = 0; i < attributeInfos.length; i++) {
+            attributeNames[i] = attributeInfos[i].getName();
+            attributes.put(attributeNames[i], attributeInfos[i]);
+        }
+        this.attributes = Collections.unmodifiableMap(attributes);
+
+        // Overloaded operations are looked up by name only, so the first one wins.
+        final Map<String, MBeanOperationInfo> operations = new HashMap<>();
+        for (MBeanOperationInfo operationInfo : mBeanInfo.getOperations()) {
+            operations.putIfAbsent(operationInfo.getName(), operationInfo);
+        }
+        this.operations = Collections.unmodifiableMap(operations);
+    }
+
+    public MBeanInfo getMBeanInfo() {
+        return mBeanInfo;
+    }
+
+    /**
+     * The attribute names, in MBeanInfo order.  The array is shared and must not be modified.
+     */
+    public String[] getAttributeNames() {
+        return attributeNames;
+    }
+
+    public MBeanAttributeInfo getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public Map<String, MBeanAttributeInfo> getAttributes() {
+        return attributes;
+    }
+
+    public MBeanOperationInfo getOperation(String name) {
+        return operations.get(name);
+    }
+
+    public Map<String, MBeanOperationInfo> getOperations() {
+        return operations;
+    }
+
+    @Override
+    public String toString() {
+        return "TypeInfo(" + mBeanInfo.getClassName() + ")";
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled wildcard pattern, where {@code *} matches any sequence of characters and {@code ?}
+ * matches any single character.
+ *
+ * The pattern is split on {@code *} once, at compile time.  Matching anchors the first and last
+ * segments to the ends of the input and places every other segment at its leftmost position, which
+ * is always correct for this kind of pattern, so there is no recursion and no backtracking.
+ * Segments without {@code ?} are found with Knuth-Morris-Pratt, so a pattern made of them matches
+ * in time linear in the input plus the pattern.  A segment containing {@code ?} is found by trying
+ * each position in turn, which costs up to the input length times the segment length.
+ */
+public final class WildcardPattern {
+
+    private static final WildcardPattern ANY = new WildcardPattern("*", null, new String[0], null);
+
+    private final String pattern;
+    private final String prefix;
+    private final String[] middle;
+    private final int[][] failures;
+    private final String suffix;
+
+    private WildcardPattern(String pattern, String prefix, String[] middle, String suffix) {
+        this.pattern = pattern;
+        this.prefix = prefix;
+        this.middle = middle;
+        this.suffix = suffix;
+        if (middle == null) {
+            this.failures = null;
+        } else {
+            this.failures = new int[middle.length][];
+            for (int i = 0; i < middle.length; i++) {
+                failures[i] = (middle[i].indexOf('?') < 0) ? failure(middle[i]) : null;
+            }
+        }
+    }
+
+    public static WildcardPattern compile(String pattern) {
+        if (pattern.indexOf('*') < 0) {
+            return new WildcardPattern(pattern, pattern, null, null);
+        }
+
+        final List<String> segments = new ArrayList<>();
+        int start = 0;
+        int star;
+        while ((star = pattern.indexOf('*', start)) >= 0) {
+            segments.add(pattern.substring(start, star));
+            start = star + 1;
+        }
+        segments.add(pattern.substring(start));
+
+        final String prefix = segments.get(0);
+        final String suffix = segments.get(segments.size() - 1);
+        final List<String> middle = new ArrayList<>();
+        for (String segment : segments.subList(1, segments.size() - 1)) {
+            if (!segment.isEmpty()) middle.add(segment);
+        }
+        if (prefix.isEmpty() && suffix.isEmpty() && middle.isEmpty()) {
+            return ANY;
+        }
+        return new WildcardPattern(pattern, prefix, middle.toArray(new String[0]), suffix);
+    }
+
+    public static WildcardPattern any() {
+        return ANY;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return true if this pattern has no wildcards, and so only matches the string itself.
+     */
+    public boolean isLiteral() {
+        return middle == null && prefix.indexOf('?') < 0;
+    }
+
+    public boolean isAny() {
+        return this == ANY;
+    }
+
+    public boolean matches(CharSequence s) {
+        final int length = s.length();
+        if (middle == null) {
+            return length == prefix.length() && regionMatches(s, 0, prefix);
+        }
+        if (this == ANY) {
+            return true;
+        }
+
+        final int end = length - suffix.length();
+        if (end < prefix.length()) return false;
+        if (!regionMatches(s, 0, prefix) || !regionMatches(s, end, suffix)) return false;
+
+        int position = prefix.length();
+        for (int i = 0; i < middle.length; i++) {
+            final String segment = middle[i];
+            position = (failures[i] != null)
+                    ? indexOf(s, segment, failures[i], position, end)
+                    : indexOf(s, segment, position, end);
+            if (position < 0) return false;
+            position += segment.length();
+        }
+        return true;
+    }
+
+    /**
+     * The Knuth-Morris-Pratt failure function: for each prefix of the segment, the length of the
+     * longest proper prefix that is also a suffix of it.
+     */
+    private static int[] failure(String segment) {
+        final int[] failure = new int[segment.length()];
+        int k = 0;
+        for (int i = 1; i < segment.length(); i++) {
+            while (k > 0 && segment.charAt(i) != segment.charAt(k)) {
+                k = failure[k - 1];
+            }
+            if (segment.charAt(i) == segment.charAt(k)) {
+                k++;
+            }
+            failure[i] = k;
+        }
+        return failure;
+    }
+
+    private static int indexOf(CharSequence s, String segment, int[] failure, int from, int end) {
+        final int length = segment.length();
+        int k = 0;
+        for (int i = from; i < end; i++) {
+            final char c = s.charAt(i);
+            while (k > 0 && segment.charAt(k) != c) {
+                k = failure[k - 1];
+            }
+            if (segment.charAt(k) == c) {
+                k++;
+            }
+            if (k == length) {
+                return i - length + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(CharSequence s, String segment, int from, int end) {
+        final int last = end - segment.length();
+        for (int i = from; i <= last; i++) {
+            if (regionMatches(s, i, segment)) return i;
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(CharSequence s, int offset, String segment) {
+        final int length = segment.length();
+        for (int i = 0; i < length; i++) {
+            final char c = segment.charAt(i);
+            if (c != '?' && c != s.charAt(offset + i)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return (o instanceof WildcardPattern) && pattern.equals(((WildcardPattern) o).pattern);
+    }
+
+    @Override
+    public int hashCode() {
+        return pattern.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+import javax.management.Descriptor;
+import javax.management.MBeanAttributeInfo;
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A cache of attribute values, for attributes that are expensive to read and polled by several
+ * clients at once.
+ *
+ * An attribute opts in with a {@value #MAX_AGE} field in the descriptor of its
+ * MBeanAttributeInfo, giving the number of milliseconds a value may be served for after it was
+ * read.  While a value is being read, every other reader of the same attribute waits for that
+ * read rather than starting its own, so however many clients poll an attribute, the model sees
+ * at most one read per max age.  Failed reads are not cached.
+ *
+ * Values are dropped when the model unregisters their MBean or an attribute is set through the
+ * view.  An expired value is replaced when it is next read, and when the cache holds more than
+ * {@code maximumSize} values, expired values are swept out, followed by the oldest values if that
+ * is not enough.  Reads in progress are never evicted.
+ */
+public class AttributeValueCache {
+
+    /**
+     * The descriptor field holding the max age in milliseconds, as a Number or a String.
+     */
+    public static final String MAX_AGE = "maxAge";
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+    private final int maximumSize;
+    private final ConcurrentHashMap<ObjectName, ConcurrentHashMap<String, CachedValue>> entries = new ConcurrentHashMap<>();
+
+    // Approximately the number of values held; corrected by every sweep.
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    public AttributeValueCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public AttributeValueCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the max age of the attribute in nanoseconds, or 0 if its values are not cached.
+     */
+    public static long getMaxAgeNanos(MBeanAttributeInfo attributeInfo) {
+        if (attributeInfo == null) return 0L;
+        final Descriptor descriptor = attributeInfo.getDescriptor();
+        final Object value = (descriptor == null) ? null : descriptor.getFieldValue(MAX_AGE);
+        final long millis;
+        if (value instanceof Number) {
+            millis = ((Number) value).longValue();
+        } else if (value instanceof String) {
+            try {
+                millis = Long.parseLong(((String) value).trim());
+            } catch (NumberFormatException e) {
+                return 0L;
+            }
+        } else {
+            return 0L;
+        }
+        return (millis > 0) ? TimeUnit.MILLISECONDS.toNanos(millis) : 0L;
+    }
+
+    /**
+     * Returns the cached value if it is younger than the max age, joins a read already in
+     * progress, or else reads it with the loader.  The loader runs on the calling thread; the
+     * returned future completes when the read does.  Cancelling it does not cancel the read.
+     */
+    public CompletableFuture<Object> get(ObjectName name, String attribute, long maxAgeNanos,
+                                         Supplier<? extends CompletionStage<?>> loader) {
+        final ConcurrentHashMap<String, CachedValue> attributes =
+                entries.computeIfAbsent(name, n -> new ConcurrentHashMap<>());
+        final long now = System.nanoTime();
+        final CachedValue current = attributes.get(attribute);
+        if (current != null && current.isFresh(now)) {
+            return current.future.thenApply(Function.identity());
+        }
+
+        final CachedValue loading = new CachedValue(maxAgeNanos);
+        final boolean[] added = new boolean[1];
+        final CachedValue winner = attributes.compute(attribute, (a, e) -> {
+            if (e != null && e.isFresh(now)) return e;
+            added[0] = (e == null);
+            return loading;
+        });
+        if (winner != loading) {
+            return winner.future.thenApply(Function.identity());
+        }
+        if (added[0] && count.incrementAndGet() > maximumSize) {
+            sweep(now);
+        }
+
+        CompletionStage<?> stage;
+        try {
+            stage = loader.get();
+        } catch (RuntimeException e) {
+            final CompletableFuture<Object> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            stage = failed;
+        }
+        stage.whenComplete((value, t) -> {
+            if (t != null) {
+                if (attributes.remove(attribute, loading)) {
+                    count.decrementAndGet();
+                }
+                loading.future.completeExceptionally(t);
+            } else {
+                loading.loadedAt = System.nanoTime();
+                loading.future.complete(value);
+            }
+        });
+        return loading.future.thenApply(Function.identity());
+    }
+
+    public void invalidate(ObjectName name, String attribute) {
+        final ConcurrentHashMap<String, CachedValue> attributes = entries.get(name);
+        if (attributes != null && attributes.remove(attribute) != null) {
+            count.decrementAndGet();
+        }
+    }
+
+    public void invalidate(ObjectName name) {
+        final ConcurrentHashMap<String, CachedValue> attributes = entries.remove(name);
+        if (attributes != null) {
+            count.addAndGet(-attributes.size());
+        }
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+        count.set(0);
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Removes expired and failed values, and then, if the cache is still over its maximum size,
+     * the oldest values until it is three quarters full, so that sweeps stay rare.  Only one
+     * thread sweeps at a time; the others carry on without waiting.
+     */
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) return;
+        try {
+            final List<Loaded> loaded = new ArrayList<>();
+            for (Map.Entry<ObjectName, ConcurrentHashMap<String, CachedValue>> e : entries.entrySet()) {
+                final ConcurrentHashMap<String, CachedValue> attributes = e.getValue();
+                for (Map.Entry<String, CachedValue> a : attributes.entrySet()) {
+                    final CachedValue value = a.getValue();
+                    if (!value.isFresh(now)) {
+                        attributes.remove(a.getKey(), value);
+                    } else if (value.future.isDone()) {
+                        loaded.add(new Loaded(e.getKey(), attributes, a.getKey(), value));
+                    }
+                }
+                if (attributes.isEmpty()) {
+                    entries.remove(e.getKey(), attributes);
+                }
+            }
+
+            int size = size();
+            final int target = maximumSize - maximumSize / 4;
+            if (size > target) {
+                loaded.sort(Comparator.comparingLong(l -> l.value.loadedAt));
+                for (int i = 0; i < loaded.size() && size > target; i++) {
+                    final Loaded l = loaded.get(i);
+                    if (l.attributes.remove(l.attribute, l.value)) {
+                        size--;
+                        if (l.attributes.isEmpty()) {
+                            entries.remove(l.name, l.attributes);
+                        }
+                    }
+                }
+            }
+            count.set(size());
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * The number of attribute values held, fresh or not.
+     */
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, CachedValue> attributes : entries.values()) {
+            size += attributes.size();
+        }
+        return size;
+    }
+
+    private static final class CachedValue {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        final long maxAgeNanos;
+        volatile long loadedAt;
+
+        CachedValue(long maxAgeNanos) {
+            this.maxAgeNanos = maxAgeNanos;
+        }
+
+        /**
+         * A read in progress counts as fresh, so that readers queue up behind it.
+         */
+        boolean isFresh(long now) {
+            if (!future.isDone()) return true;
+            return !future.isCompletedExceptionally() && now - loadedAt < maxAgeNanos;
+        }
+    }
+
+    private static final class Loaded {
+        final ObjectName name;
+        final ConcurrentHashMap<String, CachedValue> attributes;
+        final String attribute;
+        final CachedValue value;
+
+        Loaded(ObjectName name, ConcurrentHashMap<String, CachedValue> attributes, String attribute, CachedValue value) {
+            this.name = name;
+            this.attributes = attributes;
+            this.attribute = attribute;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+import com.tersesystems.jmxmvc.model.Model;
+import com.tersesystems.jmxmvc.model.ModelItem;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.ObjectName;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A ModelItemCache holding at most {@code maximumSize} items, evicting the least recently used
+ * item when full, and discarding items that were resolved more than {@code timeToLive} ago.
+ *
+ * The model is never called while holding the lock, so two threads missing on the same name
+ * may both resolve it; the last one in wins.  Invalidating a name that is being resolved leaves
+ * a tombstone until the resolution finishes, so its item is returned to the caller but not
+ * cached.  Names that are neither cached nor being resolved leave nothing behind.
+ */
+public class BoundedModelItemCache implements ModelItemCache {
+
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final LinkedHashMap<ObjectName, CachedItem> entries;
+
+    // Guarded by entries.  The number of resolutions in flight for each name, and for names
+    // invalidated while one was in flight, the generation of the invalidation.
+    private final HashMap<ObjectName, Integer> loading = new HashMap<>();
+    private final HashMap<ObjectName, Long> tombstones = new HashMap<>();
+
+    // Incremented under the lock on every invalidation; a load only caches its item if nothing
+    // invalidated the name since the load began.
+    private long generation;
+    private long clearedAt;
+
+    public BoundedModelItemCache(int maximumSize, long timeToLive, TimeUnit unit) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        if (timeToLive <= 0) {
+            throw new IllegalArgumentException("timeToLive must be positive: " + timeToLive);
+        }
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+        this.entries = new LinkedHashMap<ObjectName, CachedItem>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ObjectName, CachedItem> eldest) {
+                return size() > BoundedModelItemCache.this.maximumSize;
+            }
+        };
+    }
+
+    @Override
+    public ModelItem getItem(ObjectName name, Model model) throws InstanceNotFoundException {
+        final long now = System.nanoTime();
+        final long loadGeneration;
+        synchronized (entries) {
+            final CachedItem cached = entries.get(name);
+            if (cached != null) {
+                if (now - cached.loadedAt < timeToLiveNanos) {
+                    return cached.item;
+                }
+                entries.remove(name);
+            }
+            loading.merge(name, 1, Integer::sum);
+            loadGeneration = generation;
+        }
+
+        ModelItem item = null;
+        try {
+            item = model.getItem(name);
+            return item;
+        } finally {
+            synchronized (entries) {
+                final Long invalidatedAt = tombstones.get(name);
+                final boolean invalidated = clearedAt > loadGeneration
+                        || (invalidatedAt != null && invalidatedAt > loadGeneration);
+                if (loading.merge(name, -1, Integer::sum) == 0) {
+                    loading.remove(name);
+                    tombstones.remove(name);
+                }
+                if (item != null && !invalidated) {
+                    entries.put(name, new CachedItem(item, now));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void invalidate(ObjectName name) {
+        synchronized (entries) {
+            entries.remove(name);
+            if (loading.containsKey(name)) {
+                tombstones.put(name, ++generation);
+            }
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            tombstones.clear();
+            clearedAt = ++generation;
+        }
+    }
+
+    /**
+     * The number of cached items.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static final class CachedItem {
+        final ModelItem item;
+        final long loadedAt;
+
+        CachedItem(ModelItem item, long loadedAt) {
+            this.item = item;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+import javax.management.ObjectName;
+
+/**
+ * Hooks called around every operation on a view interceptor, for diagnostics and metrics.
+ *
+ * Listeners are called on the thread making the JMX call and must not block.  When no listener is
+ * installed the view does not read the clock or call anything.
+ */
+public interface InterceptorListener {
+
+    default void before(InterceptorOperation operation, ObjectName name) {
+    }
+
+    default void after(InterceptorOperation operation, ObjectName name, long elapsedNanos) {
+    }
+
+    default void error(InterceptorOperation operation, ObjectName name, Throwable t, long elapsedNanos) {
+    }
+
+    /**
+     * Returns a listener that calls this listener and then the other one.
+     */
+    default InterceptorListener andThen(InterceptorListener other) {
+        final InterceptorListener first = this;
+        return new InterceptorListener() {
+            @Override
+            public void before(InterceptorOperation operation, ObjectName name) {
+                first.before(operation, name);
+                other.before(operation, name);
+            }
+
+            @Override
+            public void after(InterceptorOperation operation, ObjectName name, long elapsedNanos) {
+                first.after(operation, name, elapsedNanos);
+                other.after(operation, name, elapsedNanos);
+            }
+
+            @Override
+            public void error(InterceptorOperation operation, ObjectName name, Throwable t, long elapsedNanos) {
+                first.error(operation, name, t, elapsedNanos);
+                other.error(operation, name, t, elapsedNanos);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,199 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link InterceptorListener} that counts calls, errors and latency for each operation.
+ *
+ * Counters are LongAdders and latencies go into histograms with one LongAdder per power of two
+ * nanoseconds, so recording never locks and threads on different cores rarely contend.  Install
+ * it with {@link ViewInterceptorBuilder#withListener(InterceptorListener)}, and read it in
+ * process through {@link #getStatistics(InterceptorOperation)} or over JMX after
+ * {@link #register(MBeanServer, String)}.  One instance can be shared by several views.  A view
+ * without a listener does no timing at all.
+ *
+ * Latency is measured around the whole call on the view, model included.
+ */
+public class InterceptorMetrics implements InterceptorListener, InterceptorMetricsMXBean {
+
+    /**
+     * The domain metrics are registered in.  No model can own it.
+     */
+    public static final String DOMAIN = "com.tersesystems.jmxmvc";
+
+    private static final InterceptorOperation[] OPERATIONS = InterceptorOperation.values();
+
+    private final OperationMetrics[] metrics = new OperationMetrics[OPERATIONS.length];
+
+    public InterceptorMetrics() {
+        for (int i = 0; i < metrics.length; i++) {
+            metrics[i] = new OperationMetrics();
+        }
+    }
+
+    public static ObjectName objectName(String name) throws MalformedObjectNameException {
+        return new ObjectName(DOMAIN + ":type=InterceptorMetrics,name=" + ObjectName.quote(name));
+    }
+
+    /**
+     * Registers these metrics with the server under {@link #objectName(String)}.
+     */
+    public ObjectName register(MBeanServer server, String name) throws JMException {
+        return server.registerMBean(this, objectName(name)).getObjectName();
+    }
+
+    @Override
+    public void after(InterceptorOperation operation, ObjectName name, long elapsedNanos) {
+        metrics[operation.ordinal()].record(elapsedNanos);
+    }
+
+    @Override
+    public void error(InterceptorOperation operation, ObjectName name, Throwable t, long elapsedNanos) {
+        final OperationMetrics m = metrics[operation.ordinal()];
+        m.errors.increment();
+        m.record(elapsedNanos);
+    }
+
+    public OperationStatistics getStatistics(InterceptorOperation operation) {
+        return metrics[operation.ordinal()].snapshot(operation);
+    }
+
+    /**
+     * Returns the latency below which the given fraction of calls fell, rounded up to a power of
+     * two but no higher than the slowest call, or 0 if there have been no calls.
+     */
+    public long getPercentileNanos(InterceptorOperation operation, double fraction) {
+        if (fraction < 0.0 || fraction > 1.0) {
+            throw new IllegalArgumentException("fraction must be between 0 and 1: " + fraction);
+        }
+        final OperationMetrics m = metrics[operation.ordinal()];
+        return m.percentile(m.buckets(), fraction);
+    }
+
+    @Override
+    public OperationStatistics[] getOperations() {
+        final OperationStatistics[] result = new OperationStatistics[OPERATIONS.length];
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            result[i] = getStatistics(OPERATIONS[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public long getTotalCount() {
+        long total = 0;
+        for (OperationMetrics m : metrics) {
+            total += m.count.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getTotalErrors() {
+        long total = 0;
+        for (OperationMetrics m : metrics) {
+            total += m.errors.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Resets every counter.  Calls that are recorded while the reset is in progress may be
+     * partly kept.
+     */
+    @Override
+    public void reset() {
+        for (OperationMetrics m : metrics) {
+            m.reset();
+        }
+    }
+
+    private static final class OperationMetrics {
+        // Bucket i counts latencies below 2^i nanoseconds and at least 2^(i-1).
+        private static final int BUCKETS = 64;
+
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+        final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+        OperationMetrics() {
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            final long n = Math.max(nanos, 0L);
+            count.increment();
+            totalNanos.add(n);
+            maxNanos.accumulate(n);
+            histogram[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(n))].increment();
+        }
+
+        long[] buckets() {
+            final long[] result = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                result[i] = histogram[i].sum();
+            }
+            return result;
+        }
+
+        long percentile(long[] buckets, double fraction) {
+            long total = 0;
+            for (long b : buckets) {
+                total += b;
+            }
+            if (total == 0) return 0L;
+            final long max = maxNanos.get();
+            final long rank = Math.max(1L, (long) Math.ceil(fraction * total));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return (i == 0) ? 0L : (i >= 63 ? max : Math.min(1L << i, max));
+                }
+            }
+            return max;
+        }
+
+        OperationStatistics snapshot(InterceptorOperation operation) {
+            final long[] buckets = buckets();
+            return new OperationStatistics(operation.name(), count.sum(), errors.sum(), totalNanos.sum(),
+                    maxNanos.get(), percentile(buckets, 0.5), percentile(buckets, 0.9), percentile(buckets, 0.99));
+        }
+
+        void reset() {
+            count.reset();
+            errors.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            for (LongAdder bucket : histogram) {
+                bucket.reset();
+            }
+        }
+    }
+}
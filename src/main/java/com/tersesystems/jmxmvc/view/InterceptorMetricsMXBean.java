@@ -0,0 +1,38 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+/**
+ * The management interface of {@link InterceptorMetrics}.
+ */
+public interface InterceptorMetricsMXBean {
+
+    /**
+     * Statistics for every operation, in the order of {@link InterceptorOperation}.
+     */
+    OperationStatistics[] getOperations();
+
+    long getTotalCount();
+
+    long getTotalErrors();
+
+    /**
+     * Starts counting again from zero.
+     */
+    void reset();
+}
@@ -0,0 +1,36 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+/**
+ * The operations on a view interceptor that are reported to an {@link InterceptorListener}.
+ */
+public enum InterceptorOperation {
+    GET_OBJECT_INSTANCE,
+    QUERY_MBEANS,
+    QUERY_NAMES,
+    IS_REGISTERED,
+    IS_INSTANCE_OF,
+    GET_ATTRIBUTE,
+    GET_ATTRIBUTES,
+    SET_ATTRIBUTE,
+    SET_ATTRIBUTES,
+    INVOKE,
+    GET_MBEAN_INFO,
+    EXPORT_ATTRIBUTES
+}
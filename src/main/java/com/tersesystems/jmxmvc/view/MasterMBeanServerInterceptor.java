@@ -17,26 +17,87 @@
  */
 package com.tersesystems.jmxmvc.view;
 
+import com.tersesystems.jmxmvc.model.WildcardPattern;
+
 import javax.management.*;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+/**
+ * Routes calls to the interceptor that owns the domain of the object name, falling back to the
+ * default interceptor for every domain that no interceptor has claimed.
+ *
+ * Any number of interceptors can be added, each owning one or more domains.  Calls on a single
+ * name are dispatched with one hash lookup on the domain; queries only go to the interceptors,
+ * default included, that have a domain matching the domain of the pattern.
+ */
 public class MasterMBeanServerInterceptor implements NoInstantiationMBeanServerInterceptor {
 
     private final MBeanServer defaultInterceptor;
-    private final MBeanServer otherInterceptor;
-    private final String otherDomain;
+    private final ConcurrentHashMap<String, MBeanServer> interceptors = new ConcurrentHashMap<>();
+
+    public MasterMBeanServerInterceptor(MBeanServer defaultInterceptor) {
+        this.defaultInterceptor = defaultInterceptor;
+    }
 
     public MasterMBeanServerInterceptor(
         MBeanServer defaultInterceptor,
         MBeanServer otherInterceptor,
         String otherDomain) {
-        this.defaultInterceptor = defaultInterceptor;
-        this.otherInterceptor = otherInterceptor;
-        this.otherDomain = otherDomain;
+        this(defaultInterceptor);
+        addInterceptor(otherDomain, otherInterceptor);
+    }
+
+    /**
+     * Routes every call on the given domain to the interceptor.
+     *
+     * @throws IllegalArgumentException if the domain is reserved for {@link InterceptorMetrics},
+     * or is already owned by another interceptor.
+     */
+    public void addInterceptor(String domain, MBeanServer interceptor) {
+        addInterceptor(new String[]{ domain }, interceptor);
+    }
+
+    /**
+     * Routes every call on the given domains to the interceptor.  Either every domain is added or,
+     * if any of them can't be, none is.
+     *
+     * @throws IllegalArgumentException if a domain is reserved for {@link InterceptorMetrics}, or
+     * is already owned by another interceptor.
+     */
+    public synchronized void addInterceptor(String[] domains, MBeanServer interceptor) {
+        Objects.requireNonNull(interceptor, "Null interceptor");
+        for (String domain : domains) {
+            Objects.requireNonNull(domain, "Null domain");
+            if (InterceptorMetrics.DOMAIN.equals(domain)) {
+                throw new IllegalArgumentException(domain + ": domain is reserved for metrics");
+            }
+            final MBeanServer existing = interceptors.get(domain);
+            if (existing != null && existing != interceptor) {
+                throw new IllegalArgumentException(domain + ": domain is already owned by " + existing);
+            }
+        }
+        for (String domain : domains) {
+            interceptors.put(domain, interceptor);
+        }
+    }
+
+    /**
+     * Returns the domain to the default interceptor.
+     *
+     * @return the interceptor that owned the domain, or null if there was none.
+     */
+    public synchronized MBeanServer removeInterceptor(String domain) {
+        return interceptors.remove(domain);
+    }
+
+    public MBeanServer getInterceptor(String domain) {
+        return interceptors.get(domain);
+    }
+
+    public MBeanServer getDefaultInterceptor() {
+        return defaultInterceptor;
     }
     @Override
     public ObjectInstance createMBean(String className, ObjectName name) throws ReflectionException, InstanceAlreadyExistsException, MBeanException, NotCompliantMBeanException {
@@ -82,18 +143,12 @@ public class MasterMBeanServerInterceptor implements NoInstantiationMBeanServerI
 
     @Override
     public final Set<ObjectInstance> queryMBeans(ObjectName name, QueryExp query) {
-        return union(
-            defaultInterceptor.queryMBeans(name, query),
-            otherInterceptor.queryMBeans(name, query)
-        );
+        return query(name, interceptor -> interceptor.queryMBeans(name, query));
     }
 
     @Override
     public final Set<ObjectName> queryNames(ObjectName name, QueryExp query) {
-        return union(
-            defaultInterceptor.queryNames(name, query),
-            otherInterceptor.queryNames(name, query)
-        );
+        return query(name, interceptor -> interceptor.queryNames(name, query));
     }
 
     public final String getDefaultDomain() {
@@ -101,21 +156,27 @@ public class MasterMBeanServerInterceptor implements NoInstantiationMBeanServerI
     }
 
     public String[] getDomains() {
-        return union(
-            Arrays.asList(defaultInterceptor.getDomains()),
-            Arrays.asList(otherInterceptor.getDomains())
-        ).toArray(new String[0]);
+        final Set<String> domains = new LinkedHashSet<>(Arrays.asList(defaultInterceptor.getDomains()));
+        for (MBeanServer interceptor : distinctInterceptors()) {
+            domains.addAll(Arrays.asList(interceptor.getDomains()));
+        }
+        return domains.toArray(new String[0]);
     }
 
 
     @Override
     public Integer getMBeanCount() {
-        return normalize(defaultInterceptor.getMBeanCount())+normalize(otherInterceptor.getMBeanCount());
+        int count = normalize(defaultInterceptor.getMBeanCount());
+        for (MBeanServer interceptor : distinctInterceptors()) {
+            count += normalize(interceptor.getMBeanCount());
+        }
+        return count;
     }
 
     @Override
     public final boolean isRegistered(final ObjectName name) {
-        return defaultInterceptor.isRegistered(name) || otherInterceptor.isRegistered(name);
+        // Nothing can be registered in a model's domain, so only the owner of the domain is asked.
+        return choose(name).isRegistered(name);
     }
 
     @Override
@@ -254,16 +315,82 @@ public class MasterMBeanServerInterceptor implements NoInstantiationMBeanServerI
 
     private MBeanServer choose(ObjectName name) {
         if (name == null) return defaultInterceptor;
-        if (name.getDomain().equals(otherDomain)) return otherInterceptor;
-        return defaultInterceptor;
+        final MBeanServer interceptor = interceptors.get(name.getDomain());
+        return (interceptor == null) ? defaultInterceptor : interceptor;
+    }
+
+    // An interceptor can own several domains, but must only be queried once.
+    private Collection<MBeanServer> distinctInterceptors() {
+        final Set<MBeanServer> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        result.addAll(interceptors.values());
+        return result;
+    }
+
+    /**
+     * Sends the query only to the interceptors that can have a name in the domain of the pattern.
+     * A pattern with a literal domain goes to exactly one interceptor, and if only one interceptor
+     * has results, its set is returned as is rather than copied.
+     */
+    private <T> Set<T> query(ObjectName pattern, Function<MBeanServer, Set<T>> query) {
+        if (pattern != null && !pattern.isDomainPattern()) {
+            return query.apply(choose(pattern));
+        }
+
+        final List<MBeanServer> targets = new ArrayList<>();
+        final WildcardPattern domainPattern = (pattern == null)
+                ? WildcardPattern.any()
+                : WildcardPattern.compile(pattern.getDomain());
+        if (matchesAny(domainPattern, defaultInterceptor.getDomains())) {
+            targets.add(defaultInterceptor);
+        }
+        targets.addAll(matchingInterceptors(domainPattern));
+
+        Set<T> first = null;
+        Set<T> union = null;
+        for (MBeanServer target : targets) {
+            final Set<T> result = query.apply(target);
+            if (result == null || result.isEmpty()) continue;
+            if (first == null) {
+                first = result;
+            } else {
+                if (union == null) {
+                    union = new HashSet<>(first);
+                }
+                union.addAll(result);
+            }
+        }
+        if (union != null) return union;
+        return (first == null) ? new HashSet<>() : first;
+    }
+
+    private Collection<MBeanServer> matchingInterceptors(WildcardPattern domainPattern) {
+        if (interceptors.isEmpty()) return Collections.emptySet();
+        if (domainPattern.isAny()) return distinctInterceptors();
+
+        final Set<MBeanServer> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<String, MBeanServer> e : interceptors.entrySet()) {
+            if (domainPattern.matches(e.getKey())) {
+                result.add(e.getValue());
+            }
+        }
+        return result;
+    }
+
+    private static boolean matchesAny(WildcardPattern domainPattern, String[] domains) {
+        if (domainPattern.isAny()) return true;
+        for (String domain : domains) {
+            if (domainPattern.matches(domain)) return true;
+        }
+        return false;
     }
 
     private void checkRegistration(ObjectName name)
             throws MBeanRegistrationException {
         if (name == null) return;
-        if (name.getDomain().equals(otherDomain)) {
+        final String domain = name.getDomain();
+        if (interceptors.containsKey(domain)) {
             final RuntimeException x =
-                    new UnsupportedOperationException(otherDomain +
+                    new UnsupportedOperationException(domain +
                             ": Can't register an MBean in that domain.");
             throw new MBeanRegistrationException(x, "Registration failed.");
         }
@@ -278,19 +405,5 @@ public class MasterMBeanServerInterceptor implements NoInstantiationMBeanServerI
         return i;
     }
 
-    private <T> Set<T> union(Set<T> lhs, Set<T> rhs) {
-        Set<T> result = new HashSet<T>();
-        result.addAll(lhs);
-        result.addAll(rhs);
-        return result;
-    }
-
-    private <T> List<T> union(List<T> lhs, List<T> rhs) {
-        List<T> result = new ArrayList<T>();
-        result.addAll(lhs);
-        result.addAll(rhs);
-        return result;
-    }
-
 
 }
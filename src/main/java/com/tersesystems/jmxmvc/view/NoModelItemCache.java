@@ -0,0 +1,48 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+import com.tersesystems.jmxmvc.model.Model;
+import com.tersesystems.jmxmvc.model.ModelItem;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.ObjectName;
+
+/**
+ * A ModelItemCache that does not cache, and always goes to the model.
+ */
+public final class NoModelItemCache implements ModelItemCache {
+
+    public static final NoModelItemCache INSTANCE = new NoModelItemCache();
+
+    private NoModelItemCache() {
+    }
+
+    @Override
+    public ModelItem getItem(ObjectName name, Model model) throws InstanceNotFoundException {
+        return model.getItem(name);
+    }
+
+    @Override
+    public void invalidate(ObjectName name) {
+    }
+
+    @Override
+    public void invalidateAll() {
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A snapshot of the calls to one operation, as reported by {@link InterceptorMetrics}.
+ *
+ * Percentiles are the upper bound of the power of two bucket the percentile falls in, capped at
+ * the slowest call, so they may overstate the latency by up to a factor of two.
+ */
+public final class OperationStatistics {
+    private final String operation;
+    private final long count;
+    private final long errors;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+
+    @ConstructorProperties({"operation", "count", "errors", "totalNanos", "maxNanos", "p50Nanos", "p90Nanos", "p99Nanos"})
+    public OperationStatistics(String operation, long count, long errors, long totalNanos, long maxNanos,
+                               long p50Nanos, long p90Nanos, long p99Nanos) {
+        this.operation = operation;
+        this.count = count;
+        this.errors = errors;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public double getMeanNanos() {
+        return (count == 0) ? 0.0 : (double) totalNanos / count;
+    }
+
+    @Override
+    public String toString() {
+        return operation + ": count=" + count + ", errors=" + errors + ", mean=" + (long) getMeanNanos()
+                + "ns, p50=" + p50Nanos + "ns, p90=" + p90Nanos + "ns, p99=" + p99Nanos + "ns, max=" + maxNanos + "ns";
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+import com.tersesystems.jmxmvc.model.AttributeRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.AttributeValueExp;
+import javax.management.Query;
+import javax.management.QueryExp;
+import javax.management.StringValueExp;
+import javax.management.ValueExp;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the attribute ranges a query requires, so that the model can answer it from its
+ * attribute indexes.
+ *
+ * Recognizes conjunctions of {@link Query#eq}, {@link Query#gt}, {@link Query#geq},
+ * {@link Query#lt}, {@link Query#leq}, {@link Query#between} and {@link Query#match} that
+ * compare a plain attribute with constants; any other part of the query is left for the query
+ * function, which still sees the whole query.  The JDK's query classes are package private, so
+ * they are read through their getters reflectively.  On Java 9 and later that needs
+ * {@code --add-opens java.management/javax.management=ALL-UNNAMED}; without it a warning is logged
+ * once, no ranges are found and queries scan as before.
+ */
+final class QueryPlanner {
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanner.class);
+
+    private static final Class<?> AND;
+    private static final Method AND_LEFT;
+    private static final Method AND_RIGHT;
+    private static final Class<?> BINARY;
+    private static final Method BINARY_OPERATOR;
+    private static final Method BINARY_LEFT;
+    private static final Method BINARY_RIGHT;
+    private static final Class<?> BETWEEN;
+    private static final Method BETWEEN_CHECKED;
+    private static final Method BETWEEN_LOWER;
+    private static final Method BETWEEN_UPPER;
+    private static final Class<?> MATCH;
+    private static final Method MATCH_ATTRIBUTE;
+    private static final Method MATCH_PATTERN;
+    private static final Class<?> NUMERIC;
+    private static final Method NUMERIC_IS_LONG;
+    private static final Method NUMERIC_LONG;
+    private static final Method NUMERIC_DOUBLE;
+    private static final Class<?> BOOLEAN;
+    private static final Method BOOLEAN_VALUE;
+    private static final boolean enabled;
+
+    static {
+        Class<?> and = null, binary = null, between = null, match = null, numeric = null, bool = null;
+        Method andLeft = null, andRight = null, binaryOperator = null, binaryLeft = null, binaryRight = null;
+        Method betweenChecked = null, betweenLower = null, betweenUpper = null, matchAttribute = null;
+        Method matchPattern = null, numericIsLong = null, numericLong = null, numericDouble = null, boolValue = null;
+        boolean ok;
+        try {
+            and = Class.forName("javax.management.AndQueryExp");
+            andLeft = accessible(and, "getLeftExp");
+            andRight = accessible(and, "getRightExp");
+            binary = Class.forName("javax.management.BinaryRelQueryExp");
+            binaryOperator = accessible(binary, "getOperator");
+            binaryLeft = accessible(binary, "getLeftValue");
+            binaryRight = accessible(binary, "getRightValue");
+            between = Class.forName("javax.management.BetweenQueryExp");
+            betweenChecked = accessible(between, "getCheckedValue");
+            betweenLower = accessible(between, "getLowerBound");
+            betweenUpper = accessible(between, "getUpperBound");
+            match = Class.forName("javax.management.MatchQueryExp");
+            matchAttribute = accessible(match, "getAttribute");
+            matchPattern = accessible(match, "getPattern");
+            numeric = Class.forName("javax.management.NumericValueExp");
+            numericIsLong = accessible(numeric, "isLong");
+            numericLong = accessible(numeric, "longValue");
+            numericDouble = accessible(numeric, "doubleValue");
+            bool = Class.forName("javax.management.BooleanValueExp");
+            boolValue = accessible(bool, "getValue");
+            ok = true;
+        } catch (Exception | LinkageError e) {
+            logger.warn("Query planning is disabled and attribute indexes will not be used: the JDK query classes "
+                    + "can't be read.  On Java 9 and later, run with "
+                    + "--add-opens java.management/javax.management=ALL-UNNAMED", e);
+            ok = false;
+        }
+        AND = and;
+        AND_LEFT = andLeft;
+        AND_RIGHT = andRight;
+        BINARY = binary;
+        BINARY_OPERATOR = binaryOperator;
+        BINARY_LEFT = binaryLeft;
+        BINARY_RIGHT = binaryRight;
+        BETWEEN = between;
+        BETWEEN_CHECKED = betweenChecked;
+        BETWEEN_LOWER = betweenLower;
+        BETWEEN_UPPER = betweenUpper;
+        MATCH = match;
+        MATCH_ATTRIBUTE = matchAttribute;
+        MATCH_PATTERN = matchPattern;
+        NUMERIC = numeric;
+        NUMERIC_IS_LONG = numericIsLong;
+        NUMERIC_LONG = numericLong;
+        NUMERIC_DOUBLE = numericDouble;
+        BOOLEAN = bool;
+        BOOLEAN_VALUE = boolValue;
+        enabled = ok;
+    }
+
+    private QueryPlanner() {
+    }
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    private static Method accessible(Class<?> type, String name) throws NoSuchMethodException {
+        final Method method = type.getMethod(name);
+        method.setAccessible(true);
+        return method;
+    }
+
+    /**
+     * Returns the ranges that every match of the query satisfies, or an empty list.
+     */
+    static List<AttributeRange> ranges(QueryExp query) {
+        if (query == null || !enabled) {
+            return Collections.emptyList();
+        }
+        final List<AttributeRange> ranges = new ArrayList<>();
+        try {
+            collect(query, ranges);
+        } catch (Exception e) {
+            logger.debug("ranges: could not plan {}", query, e);
+            return Collections.emptyList();
+        }
+        return ranges;
+    }
+
+    private static void collect(QueryExp query, List<AttributeRange> ranges) throws Exception {
+        final Class<?> type = query.getClass();
+        if (type == AND) {
+            collect((QueryExp) AND_LEFT.invoke(query), ranges);
+            collect((QueryExp) AND_RIGHT.invoke(query), ranges);
+        } else if (type == BINARY) {
+            final int operator = (Integer) BINARY_OPERATOR.invoke(query);
+            final ValueExp left = (ValueExp) BINARY_LEFT.invoke(query);
+            final ValueExp right = (ValueExp) BINARY_RIGHT.invoke(query);
+            if (isAttribute(left)) {
+                add(ranges, relation(attribute(left), operator, constant(right)));
+            } else if (isAttribute(right)) {
+                add(ranges, relation(attribute(right), reverse(operator), constant(left)));
+            }
+        } else if (type == BETWEEN) {
+            final ValueExp checked = (ValueExp) BETWEEN_CHECKED.invoke(query);
+            if (isAttribute(checked)) {
+                final Object low = constant((ValueExp) BETWEEN_LOWER.invoke(query));
+                final Object high = constant((ValueExp) BETWEEN_UPPER.invoke(query));
+                if (low != null && high != null) {
+                    add(ranges, AttributeRange.between(attribute(checked), low, high));
+                }
+            }
+        } else if (type == MATCH) {
+            final AttributeValueExp attribute = (AttributeValueExp) MATCH_ATTRIBUTE.invoke(query);
+            final String pattern = (String) MATCH_PATTERN.invoke(query);
+            if (isAttribute(attribute) && pattern != null) {
+                add(ranges, AttributeRange.startsWith(attribute(attribute), literalPrefix(pattern)));
+            }
+        }
+    }
+
+    /**
+     * Adds the range, narrowing an earlier range on the same attribute if there is one, so that
+     * {@code attr > 100 and attr < 110} becomes a single range.
+     */
+    private static void add(List<AttributeRange> ranges, AttributeRange range) {
+        if (range == null) return;
+        for (int i = 0; i < ranges.size(); i++) {
+            final AttributeRange both = ranges.get(i).and(range);
+            if (both != null) {
+                ranges.set(i, both);
+                return;
+            }
+        }
+        ranges.add(range);
+    }
+
+    private static AttributeRange relation(String attribute, int operator, Object value) {
+        if (value == null) return null;
+        switch (operator) {
+            case Query.EQ:
+                return AttributeRange.equalTo(attribute, value);
+            case Query.GT:
+                return AttributeRange.greaterThan(attribute, value, false);
+            case Query.GE:
+                return AttributeRange.greaterThan(attribute, value, true);
+            case Query.LT:
+                return AttributeRange.lessThan(attribute, value, false);
+            case Query.LE:
+                return AttributeRange.lessThan(attribute, value, true);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The operator with its operands swapped, so that {@code 10 < attr} reads as {@code attr > 10}.
+     */
+    private static int reverse(int operator) {
+        switch (operator) {
+            case Query.GT:
+                return Query.LT;
+            case Query.GE:
+                return Query.LE;
+            case Query.LT:
+                return Query.GT;
+            case Query.LE:
+                return Query.GE;
+            default:
+                return operator;
+        }
+    }
+
+    /**
+     * Only plain attributes are planned: a qualified or custom AttributeValueExp may read its value
+     * some other way.
+     */
+    private static boolean isAttribute(ValueExp exp) {
+        return exp != null && exp.getClass() == AttributeValueExp.class;
+    }
+
+    private static String attribute(ValueExp exp) {
+        return ((AttributeValueExp) exp).getAttributeName();
+    }
+
+    private static Object constant(ValueExp exp) throws Exception {
+        if (exp == null) return null;
+        final Class<?> type = exp.getClass();
+        if (type == NUMERIC) {
+            return ((Boolean) NUMERIC_IS_LONG.invoke(exp)) ? NUMERIC_LONG.invoke(exp) : NUMERIC_DOUBLE.invoke(exp);
+        }
+        if (type == StringValueExp.class) {
+            return ((StringValueExp) exp).getValue();
+        }
+        if (type == BOOLEAN) {
+            return BOOLEAN_VALUE.invoke(exp);
+        }
+        return null;
+    }
+
+    /**
+     * The part of a {@link Query#match} pattern before its first wildcard or escape.
+     */
+    static String literalPrefix(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            switch (pattern.charAt(i)) {
+                case '*':
+                case '?':
+                case '[':
+                case '\\':
+                    return pattern.substring(0, i);
+                default:
+            }
+        }
+        return pattern;
+    }
+}
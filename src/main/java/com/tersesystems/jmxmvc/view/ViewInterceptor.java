@@ -17,17 +17,34 @@
  */
 package com.tersesystems.jmxmvc.view;
 
+import com.tersesystems.jmxmvc.model.AsyncModel;
+import com.tersesystems.jmxmvc.model.AsyncModelItem;
+import com.tersesystems.jmxmvc.model.AttributeTable;
 import com.tersesystems.jmxmvc.model.Model;
 import com.tersesystems.jmxmvc.model.ModelItem;
+import com.tersesystems.jmxmvc.model.TimeoutPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.management.*;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import static java.lang.String.format;
-import static java.util.Arrays.*;
+import static com.tersesystems.jmxmvc.view.InterceptorOperation.*;
 
 public class ViewInterceptor implements NoInstantiationMBeanServerInterceptor {
     private static final Logger logger = LoggerFactory.getLogger(ViewInterceptor.class);
@@ -38,57 +55,185 @@ public class ViewInterceptor implements NoInstantiationMBeanServerInterceptor {
 
     private final Model model;
 
+    private final ModelItemCache itemCache;
+
+    private final InterceptorListener listener;
+
+    private final AttributeValueCache valueCache;
+
+    private final TimeoutPolicy timeoutPolicy;
+
+    private final NotificationListener invalidationListener = (notification, handback) -> {
+        if (notification instanceof MBeanServerNotification) {
+            invalidate(((MBeanServerNotification) notification).getMBeanName());
+        }
+    };
+
     public ViewInterceptor(Model model, MBeanServerDelegate forwarder, MBeanServer server) {
+        this(model, forwarder, server, NoModelItemCache.INSTANCE);
+    }
+
+    public ViewInterceptor(Model model, MBeanServerDelegate forwarder, MBeanServer server, ModelItemCache itemCache) {
+        this(model, forwarder, server, itemCache, null);
+    }
+
+    /**
+     * @param listener called around every operation, or null for no instrumentation.
+     */
+    public ViewInterceptor(Model model, MBeanServerDelegate forwarder, MBeanServer server, ModelItemCache itemCache, InterceptorListener listener) {
+        this(model, forwarder, server, itemCache, listener, null);
+    }
+
+    /**
+     * @param listener called around every operation, or null for no instrumentation.
+     * @param valueCache caches attributes that declare a max age, or null to read every value from
+     *                   the model.
+     */
+    public ViewInterceptor(Model model, MBeanServerDelegate forwarder, MBeanServer server, ModelItemCache itemCache,
+                           InterceptorListener listener, AttributeValueCache valueCache) {
         this.model = model;
         this.forwarder = forwarder;
         this.server = server;
+        this.itemCache = itemCache;
+        this.listener = listener;
+        this.valueCache = valueCache;
+        this.timeoutPolicy = (model instanceof AsyncModel)
+                ? ((AsyncModel) model).getTimeoutPolicy()
+                : TimeoutPolicy.DEFAULT;
     }
 
     public void start() throws Exception {
-        logger.trace("start", "");
+        logger.trace("start");
+        if (isCaching()) {
+            forwarder.addNotificationListener(invalidationListener,
+                    new UnregistrationFilter(model.getDomains()), null);
+        }
         model.start(forwarder);
     }
 
     public void stop() throws Exception {
-        logger.trace("stop", "");
+        logger.trace("stop");
         model.stop();
+        if (isCaching()) {
+            try {
+                forwarder.removeNotificationListener(invalidationListener);
+            } catch (ListenerNotFoundException e) {
+                // never started, nothing to remove
+            }
+            itemCache.invalidateAll();
+            if (valueCache != null) {
+                valueCache.invalidateAll();
+            }
+        }
+    }
+
+    private boolean isCaching() {
+        return itemCache != NoModelItemCache.INSTANCE || valueCache != null;
+    }
+
+    /**
+     * Discards any cached item and attribute values for the given name, so the next call resolves
+     * it from the model.
+     */
+    public void invalidate(ObjectName name) {
+        if (name != null) {
+            itemCache.invalidate(name);
+            if (valueCache != null) {
+                valueCache.invalidate(name);
+            }
+        }
     }
 
     @Override
     public ObjectInstance getObjectInstance(ObjectName name) throws InstanceNotFoundException {
-        logger.trace("getObjectInstance: {}", format("name = %s", name));
-        final ModelItem item = model.getItem(name);
-        return item.getObjectInstance();
+        logger.trace("getObjectInstance: name = {}", name);
+
+        final long start = begin(GET_OBJECT_INSTANCE, name);
+        try {
+            final ModelItem item = getItem(name);
+            return end(GET_OBJECT_INSTANCE, name, start, item.getObjectInstance());
+        } catch (Throwable t) {
+            failed(GET_OBJECT_INSTANCE, name, start, t);
+            throw t;
+        }
     }
 
     @Override
     public Set<ObjectInstance> queryMBeans(ObjectName name, QueryExp query) {
-        logger.trace("queryMBeans: {}", format("name = %s, query = %s", name, query));
-        return model.queryMBeans(name, (ObjectName n) -> {
-            if (query == null) return true;
-            try {
-                query.setMBeanServer(server);
-                return query.apply(n);
-            } catch (Exception e) {
-                return false;
-            }
-        });
+        logger.trace("queryMBeans: name = {}, query = {}", name, query);
+
+        final long start = begin(QUERY_MBEANS, name);
+        try {
+            return end(QUERY_MBEANS, name, start, model.queryMBeans(name, QueryPlanner.ranges(query), queryFunction(query)));
+        } catch (Throwable t) {
+            failed(QUERY_MBEANS, name, start, t);
+            throw t;
+        }
     }
 
     @Override
     public Set<ObjectName> queryNames(final ObjectName name,
                                       final QueryExp query) {
-        logger.trace("queryNames: {}", format("name = %s, query = %s", name, query));
+        logger.trace("queryNames: name = {}, query = {}", name, query);
+
+        final long start = begin(QUERY_NAMES, name);
+        try {
+            return end(QUERY_NAMES, name, start, model.queryNames(name, QueryPlanner.ranges(query), queryFunction(query)));
+        } catch (Throwable t) {
+            failed(QUERY_NAMES, name, start, t);
+            throw t;
+        }
+    }
+
+    /**
+     * Returns the matching names lazily, for in-process consumers that want to walk a large model
+     * without materializing the whole result set.  The stream is not ordered unless the model's
+     * elements are.
+     */
+    public Stream<ObjectName> streamNames(final ObjectName name, final QueryExp query) {
+        logger.trace("streamNames: name = {}, query = {}", name, query);
+        return model.streamNames(name, QueryPlanner.ranges(query), queryFunction(query));
+    }
+
+    /**
+     * Returns the matching instances lazily.
+     */
+    public Stream<ObjectInstance> streamMBeans(final ObjectName name, final QueryExp query) {
+        logger.trace("streamMBeans: name = {}, query = {}", name, query);
+        return model.streamMBeans(name, QueryPlanner.ranges(query), queryFunction(query));
+    }
+
+    /**
+     * Returns a page of at most {@code limit} matching names, after skipping {@code offset} of
+     * them.  Pages are only stable across calls if the model iterates its elements in a stable
+     * order.
+     */
+    public List<ObjectName> queryNames(final ObjectName name, final QueryExp query, long offset, long limit) {
+        try (Stream<ObjectName> stream = streamNames(name, query)) {
+            return stream.skip(offset).limit(limit).collect(Collectors.toList());
+        }
+    }
 
-        return model.queryNames(name, (ObjectName n) -> {
-            if (query == null) return true;
+    /**
+     * The query sees a QueryServer bound to the name under test, so attribute references are read
+     * from the item directly instead of going back through the MBeanServer.  Each thread that
+     * evaluates the query gets its own QueryServer, which lives as long as the query.
+     */
+    private Function<ObjectName, Boolean> queryFunction(final QueryExp query) {
+        if (query == null) return n -> true;
+        final ThreadLocal<QueryServer> queryServers = ThreadLocal.withInitial(() -> new QueryServer(this, server));
+        return (ObjectName n) -> {
+            final QueryServer queryServer = queryServers.get();
+            queryServer.bind(n);
             try {
-                query.setMBeanServer(server);
+                query.setMBeanServer(queryServer);
                 return query.apply(n);
             } catch (Exception e) {
                 return false;
+            } finally {
+                queryServer.unbind();
             }
-        });
+        };
     }
 
     @Override
@@ -108,23 +253,30 @@ public class ViewInterceptor implements NoInstantiationMBeanServerInterceptor {
 
     @Override
     public boolean isRegistered(ObjectName name) {
-        logger.trace("isRegistered: {}", format("name = %s", name));
+        logger.trace("isRegistered: name = {}", name);
 
+        final long start = begin(IS_REGISTERED, name);
         try {
-            model.getItem(name);
-            return true;
-        } catch (InstanceNotFoundException x) {
-            return false;
+            return end(IS_REGISTERED, name, start, model.contains(name));
+        } catch (Throwable t) {
+            failed(IS_REGISTERED, name, start, t);
+            throw t;
         }
     }
 
     @Override
     public boolean isInstanceOf(ObjectName name, String className)
             throws InstanceNotFoundException {
-        logger.trace("isInstanceOf: {}", format("name = %s, className = %s", name, className));
+        logger.trace("isInstanceOf: name = {}, className = {}", name, className);
 
-        final ModelItem item = model.getItem(name);
-        return item.isInstanceOf(className);
+        final long start = begin(IS_INSTANCE_OF, name);
+        try {
+            final ModelItem item = getItem(name);
+            return end(IS_INSTANCE_OF, name, start, item.isInstanceOf(className));
+        } catch (Throwable t) {
+            failed(IS_INSTANCE_OF, name, start, t);
+            throw t;
+        }
     }
 
     @Override
@@ -132,67 +284,123 @@ public class ViewInterceptor implements NoInstantiationMBeanServerInterceptor {
                                final String attribute)
             throws MBeanException, AttributeNotFoundException,
             InstanceNotFoundException, ReflectionException {
-        logger.trace("getAttribute", format("name = %s, attribute = %s", name, attribute));
+        logger.trace("getAttribute: name = {}, attribute = {}", name, attribute);
 
-        final ModelItem item = model.getItem(name);
-        return item.getAttribute(attribute);
+        final long start = begin(GET_ATTRIBUTE, name);
+        final TimeoutPolicy.Deadline deadline = timeoutPolicy.startDeadline();
+        try {
+            final ModelItem item = getItem(name);
+            return end(GET_ATTRIBUTE, name, start, getAttribute(item, attribute));
+        } catch (Throwable t) {
+            failed(GET_ATTRIBUTE, name, start, t);
+            throw t;
+        } finally {
+            deadline.close();
+        }
     }
 
     @Override
     public AttributeList getAttributes(final ObjectName name,
                                        final String[] attributes)
-            throws InstanceNotFoundException {
-        logger.trace("getAttributes: {}", format("name = %s, attributes = %s", name, Arrays.toString(attributes)));
+            throws InstanceNotFoundException, ReflectionException {
+        if (logger.isTraceEnabled()) {
+            logger.trace("getAttributes: name = {}, attributes = {}", name, Arrays.toString(attributes));
+        }
 
-        final ModelItem item = model.getItem(name);
-        MBeanAttributeInfo[] beanAttributeInfos = item.getMBeanInfo().getAttributes();
-        final String[] attn = stream(beanAttributeInfos).map(MBeanFeatureInfo::getName).toArray(String[]::new);
-        final AttributeList list = new AttributeList(attn.length);
-        for (String anAttn : attn) {
-            try {
-                final Attribute a =
-                        new Attribute(anAttn, item.getAttribute(anAttn));
-                list.add(a);
-            } catch (Exception x) {
-                // Skip the attribute that couldn't be obtained.
-                //
-            }
+        if (attributes == null) {
+            final RuntimeException r =
+                    new IllegalArgumentException("Attributes cannot be null");
+            throw new RuntimeOperationsException(r,
+                    "Exception occurred trying to invoke the getter on the MBean");
         }
 
-        return list;
+        final long start = begin(GET_ATTRIBUTES, name);
+        final TimeoutPolicy.Deadline deadline = timeoutPolicy.startDeadline();
+        try {
+            final ModelItem item = getItem(name);
+            if (attributes.length == 0) {
+                return end(GET_ATTRIBUTES, name, start, new AttributeList(0));
+            }
+            return end(GET_ATTRIBUTES, name, start, getAttributes(item, attributes));
+        } catch (Throwable t) {
+            failed(GET_ATTRIBUTES, name, start, t);
+            throw t;
+        } finally {
+            deadline.close();
+        }
     }
 
     @Override
     public void setAttribute(final ObjectName name,
                              final Attribute attribute)
             throws InstanceNotFoundException, AttributeNotFoundException,
-            MBeanException, ReflectionException {
-        logger.trace("setAttribute: {}", format("name = %s, attribute = %s", name, attribute));
-
-        final ModelItem item = model.getItem(name);
-        if (item != null) {
-            final String attname = attribute == null ? null : attribute.getName();
-            if (attname == null) {
-                final RuntimeException r =
-                        new IllegalArgumentException("Attribute name cannot be null");
-                throw new RuntimeOperationsException(r,
-                        "Exception occurred trying to invoke the setter on the MBean");
-            }
+            InvalidAttributeValueException, MBeanException, ReflectionException {
+        logger.trace("setAttribute: name = {}, attribute = {}", name, attribute);
+
+        final String attname = attribute == null ? null : attribute.getName();
+        if (attname == null) {
+            final RuntimeException r =
+                    new IllegalArgumentException("Attribute name cannot be null");
+            throw new RuntimeOperationsException(r,
+                    "Exception occurred trying to invoke the setter on the MBean");
+        }
 
-            // XXX FIXME
-            item.getAttribute(attname);
-            throw new AttributeNotFoundException(attname + " not accessible");
+        final long start = begin(SET_ATTRIBUTE, name);
+        try {
+            final ModelItem item = getItem(name);
+            if (!isWritable(item, attname)) {
+                throw new AttributeNotFoundException(attname + " not accessible");
+            }
+            try {
+                item.setAttribute(attribute);
+            } finally {
+                invalidateValue(name, attname);
+            }
+            end(SET_ATTRIBUTE, name, start, null);
+        } catch (Throwable t) {
+            failed(SET_ATTRIBUTE, name, start, t);
+            throw t;
         }
     }
 
     @Override
     public AttributeList setAttributes(final ObjectName name,
                                        final AttributeList attributes)
-            throws InstanceNotFoundException {
-        logger.trace("setAttributes: {}", format("name = %s, attribute = %s", name, attributes));
+            throws InstanceNotFoundException, ReflectionException {
+        logger.trace("setAttributes: name = {}, attributes = {}", name, attributes);
+
+        if (attributes == null) {
+            final RuntimeException r =
+                    new IllegalArgumentException("Attributes cannot be null");
+            throw new RuntimeOperationsException(r,
+                    "Exception occurred trying to invoke the setter on the MBean");
+        }
 
-        model.getItem(name);
-        return new AttributeList(0);
+        final long start = begin(SET_ATTRIBUTES, name);
+        try {
+            final ModelItem item = getItem(name);
+
+            // Read only and unknown attributes are left out of the result, as if they had failed.
+            final AttributeList writable = new AttributeList(attributes.size());
+            for (Attribute attribute : attributes.asList()) {
+                if (isWritable(item, attribute.getName())) {
+                    writable.add(attribute);
+                }
+            }
+            if (writable.isEmpty()) {
+                return end(SET_ATTRIBUTES, name, start, writable);
+            }
+            try {
+                return end(SET_ATTRIBUTES, name, start, item.setAttributes(writable));
+            } finally {
+                for (Attribute attribute : writable.asList()) {
+                    invalidateValue(name, attribute.getName());
+                }
+            }
+        } catch (Throwable t) {
+            failed(SET_ATTRIBUTES, name, start, t);
+            throw t;
+        }
     }
 
     @Override
@@ -202,7 +410,10 @@ public class ViewInterceptor implements NoInstantiationMBeanServerInterceptor {
                          final String[] signature)
             throws InstanceNotFoundException, MBeanException,
             ReflectionException {
-        logger.trace("invoke: {}", format("name = %s, operationName = %s, params = %s, signature = %s", name, operationName, Arrays.toString(params), Arrays.toString(signature)));
+        if (logger.isTraceEnabled()) {
+            logger.trace("invoke: name = {}, operationName = {}, params = {}, signature = {}",
+                    name, operationName, Arrays.toString(params), Arrays.toString(signature));
+        }
 
         if (operationName == null) {
             final RuntimeException r =
@@ -211,12 +422,30 @@ public class ViewInterceptor implements NoInstantiationMBeanServerInterceptor {
                     "Exception occurred trying to invoke the operation on the MBean");
         }
 
-        final ModelItem item = model.getItem(name);
+        final long start = begin(INVOKE, name);
+        final TimeoutPolicy.Deadline deadline = timeoutPolicy.startDeadline();
+        try {
+            return end(INVOKE, name, start, invoke(getItem(name), operationName, params, signature));
+        } catch (Throwable t) {
+            failed(INVOKE, name, start, t);
+            throw t;
+        } finally {
+            deadline.close();
+        }
+    }
+
+    private Object invoke(final ModelItem item,
+                          final String operationName,
+                          final Object[] params,
+                          final String[] signature)
+            throws InstanceNotFoundException, MBeanException, ReflectionException {
+        // A getter called as an operation, unless the MBean really has an operation by that name.
         if (operationName.startsWith("get") &&
+                item.getOperationInfo(operationName) == null &&
                 (params == null || params.length == 0) &&
                 (signature == null || signature.length == 0)) {
             try {
-                return item.getAttribute(operationName.substring(3));
+                return getAttribute(item, operationName.substring(3));
             } catch (AttributeNotFoundException x) {
                 throw new ReflectionException(
                         new NoSuchMethodException(operationName),
@@ -226,6 +455,9 @@ public class ViewInterceptor implements NoInstantiationMBeanServerInterceptor {
         }
 
         try {
+            if (model instanceof AsyncModel) {
+                return timeoutPolicy.await(((AsyncModel) model).invokeAsync(item, operationName, params, signature));
+            }
             return model.invoke(item, operationName, params, signature);
         } catch (Exception x) {
             throw new
@@ -233,12 +465,132 @@ public class ViewInterceptor implements NoInstantiationMBeanServerInterceptor {
         }
     }
 
+    /**
+     * Returns the given attributes of every MBean in this view that matches the pattern.  A
+     * synchronous model without a value cache reads them in one pass over the model; otherwise every
+     * read is started at once, through the value cache, and awaited under a single deadline.  Rows
+     * that fail or do not arrive in time are kept as failed rows.
+     */
+    public AttributeTable exportAttributes(final ObjectName pattern, final String[] attributes)
+            throws ReflectionException {
+        if (attributes == null) {
+            final RuntimeException r =
+                    new IllegalArgumentException("Attributes cannot be null");
+            throw new RuntimeOperationsException(r,
+                    "Exception occurred trying to export attributes");
+        }
+
+        final long start = begin(EXPORT_ATTRIBUTES, pattern);
+        final TimeoutPolicy.Deadline deadline = timeoutPolicy.startDeadline();
+        try {
+            final AttributeTable table = (model instanceof AsyncModel || valueCache != null)
+                    ? exportAttributesAsync(pattern, attributes)
+                    : model.exportAttributes(pattern, attributes);
+            return end(EXPORT_ATTRIBUTES, pattern, start, table);
+        } catch (Throwable t) {
+            failed(EXPORT_ATTRIBUTES, pattern, start, t);
+            throw t;
+        } finally {
+            deadline.close();
+        }
+    }
+
+    private AttributeTable exportAttributesAsync(final ObjectName pattern, final String[] attributes) {
+        final Map<ObjectName, CompletableFuture<AttributeList>> rows = new LinkedHashMap<>();
+        model.streamNames(pattern, n -> true).forEach(name -> rows.put(name,
+                getItemAsync(name).toCompletableFuture().thenCompose(item -> getAttributesAsync(item, attributes))));
+
+        try {
+            timeoutPolicy.await(CompletableFuture.allOf(rows.values().toArray(new CompletableFuture<?>[0]))
+                    .exceptionally(t -> null));
+        } catch (Exception e) {
+            // Timed out: whatever has not arrived is recorded as failed.
+        }
+
+        final AttributeTable.Builder table = AttributeTable.builder(attributes);
+        for (Map.Entry<ObjectName, CompletableFuture<AttributeList>> e : rows.entrySet()) {
+            final CompletableFuture<AttributeList> future = e.getValue();
+            if (!future.isDone()) {
+                future.cancel(false);
+                table.addFailedRow(e.getKey(), new TimeoutException("Timed out reading " + e.getKey()));
+                continue;
+            }
+            try {
+                table.addRow(e.getKey(), future.join());
+            } catch (CompletionException | CancellationException x) {
+                final Throwable cause = (x.getCause() == null) ? x : x.getCause();
+                if (cause instanceof InstanceNotFoundException) {
+                    continue; // Gone since the query.
+                }
+                table.addFailedRow(e.getKey(), cause);
+            }
+        }
+        return table.build();
+    }
+
+    /**
+     * Resolves the item without blocking if the model is asynchronous.
+     */
+    public CompletionStage<ModelItem> getItemAsync(final ObjectName name) {
+        if (model instanceof AsyncModel) {
+            return ((AsyncModel) model).getItemAsync(name);
+        }
+        try {
+            return CompletableFuture.completedFuture(getItem(name));
+        } catch (InstanceNotFoundException e) {
+            return failedStage(e);
+        }
+    }
+
+    public CompletionStage<Object> getAttributeAsync(final ObjectName name, final String attribute) {
+        return getItemAsync(name).thenCompose(item -> {
+            final long maxAge = getMaxAgeNanos(item, attribute);
+            if (maxAge > 0) {
+                return cachedAttribute(item, attribute, maxAge);
+            }
+            if (item instanceof AsyncModelItem) {
+                return ((AsyncModelItem) item).getAttributeAsync(attribute);
+            }
+            try {
+                return CompletableFuture.completedFuture(item.getAttribute(attribute));
+            } catch (Exception e) {
+                return failedStage(e);
+            }
+        });
+    }
+
+    public CompletionStage<AttributeList> getAttributesAsync(final ObjectName name, final String[] attributes) {
+        return getItemAsync(name).thenCompose(item -> getAttributesAsync(item, attributes));
+    }
+
+    public CompletionStage<Object> invokeAsync(final ObjectName name,
+                                               final String operationName,
+                                               final Object[] params,
+                                               final String[] signature) {
+        return getItemAsync(name).thenCompose(item -> {
+            if (model instanceof AsyncModel) {
+                return ((AsyncModel) model).invokeAsync(item, operationName, params, signature);
+            }
+            try {
+                return CompletableFuture.completedFuture(model.invoke(item, operationName, params, signature));
+            } catch (Exception e) {
+                return failedStage(e);
+            }
+        });
+    }
+
     @Override
     public MBeanInfo getMBeanInfo(final ObjectName name)
             throws InstanceNotFoundException {
-        logger.trace("getMBeanInfo: {}", format("name = %s", name));
+        logger.trace("getMBeanInfo: name = {}", name);
 
-        return model.getItem(name).getMBeanInfo();
+        final long start = begin(GET_MBEAN_INFO, name);
+        try {
+            return end(GET_MBEAN_INFO, name, start, getItem(name).getMBeanInfo());
+        } catch (Throwable t) {
+            failed(GET_MBEAN_INFO, name, start, t);
+            throw t;
+        }
     }
 
     @Override
@@ -315,7 +667,225 @@ public class ViewInterceptor implements NoInstantiationMBeanServerInterceptor {
 
     private ClassLoader getMBeanClassLoader(final ObjectName name)
             throws InstanceNotFoundException {
-        return model.getItem(name).getClass().getClassLoader();
+        return getItem(name).getClass().getClassLoader();
+    }
+
+    ModelItem getItem(final ObjectName name) throws InstanceNotFoundException {
+        return itemCache.getItem(name, model);
+    }
+
+    Object getAttribute(final ModelItem item, final String attribute)
+            throws MBeanException, AttributeNotFoundException, InstanceNotFoundException, ReflectionException {
+        final long maxAge = getMaxAgeNanos(item, attribute);
+        if (maxAge > 0) {
+            return timeoutPolicy.awaitAttribute(cachedAttribute(item, attribute, maxAge), attribute);
+        }
+        if (item instanceof AsyncModelItem) {
+            return timeoutPolicy.awaitAttribute(((AsyncModelItem) item).getAttributeAsync(attribute), attribute);
+        }
+        return item.getAttribute(attribute);
     }
 
+    AttributeList getAttributes(final ModelItem item, final String[] attributes) throws ReflectionException {
+        if (valueCache != null) {
+            for (String attribute : attributes) {
+                if (getMaxAgeNanos(item, attribute) > 0) {
+                    return getAttributesCached(item, attributes);
+                }
+            }
+        }
+        if (item instanceof AsyncModelItem) {
+            return timeoutPolicy.awaitAttributes(((AsyncModelItem) item).getAttributesAsync(attributes));
+        }
+        return item.getAttributes(attributes);
+    }
+
+    /**
+     * Starts the reads of the cached attributes, reads the others from the item in one call, and
+     * then waits for the cached ones.  Attributes that fail or time out are left out, as in
+     * {@link ModelItem#getAttributes(String[])}.
+     */
+    private AttributeList getAttributesCached(final ModelItem item, final String[] attributes)
+            throws ReflectionException {
+        final Map<String, CompletableFuture<Object>> cached = new HashMap<>();
+        final List<String> uncached = new ArrayList<>(attributes.length);
+        for (String attribute : attributes) {
+            final long maxAge = getMaxAgeNanos(item, attribute);
+            if (maxAge > 0) {
+                cached.put(attribute, cachedAttribute(item, attribute, maxAge));
+            } else {
+                uncached.add(attribute);
+            }
+        }
+
+        final Map<String, Object> values = new HashMap<>();
+        if (!uncached.isEmpty()) {
+            final AttributeList read;
+            if (item instanceof AsyncModelItem) {
+                read = timeoutPolicy.awaitAttributes(((AsyncModelItem) item).getAttributesAsync(uncached.toArray(new String[0])));
+            } else {
+                read = item.getAttributes(uncached.toArray(new String[0]));
+            }
+            for (Attribute attribute : read.asList()) {
+                values.put(attribute.getName(), attribute.getValue());
+            }
+        }
+
+        try {
+            timeoutPolicy.await(CompletableFuture.allOf(cached.values().toArray(new CompletableFuture<?>[0]))
+                    .exceptionally(t -> null));
+        } catch (Exception e) {
+            // Timed out: whatever has not arrived is left out.
+        }
+        for (Map.Entry<String, CompletableFuture<Object>> e : cached.entrySet()) {
+            final CompletableFuture<Object> future = e.getValue();
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                values.put(e.getKey(), future.join());
+            }
+        }
+
+        final AttributeList list = new AttributeList(attributes.length);
+        for (String attribute : attributes) {
+            if (values.containsKey(attribute)) {
+                list.add(new Attribute(attribute, values.get(attribute)));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Reads the attributes without blocking, taking those with a max age from the value cache and
+     * the others from the item in one call.  Cached attributes that fail are left out, as in
+     * {@link ModelItem#getAttributes(String[])}; a failed read of the others fails the result.
+     */
+    CompletableFuture<AttributeList> getAttributesAsync(final ModelItem item, final String[] attributes) {
+        final Map<String, CompletableFuture<Object>> cached = new HashMap<>();
+        final List<String> uncached = new ArrayList<>(attributes.length);
+        for (String attribute : attributes) {
+            final long maxAge = getMaxAgeNanos(item, attribute);
+            if (maxAge > 0) {
+                cached.put(attribute, cachedAttribute(item, attribute, maxAge));
+            } else {
+                uncached.add(attribute);
+            }
+        }
+
+        final CompletableFuture<AttributeList> read;
+        if (uncached.isEmpty()) {
+            read = CompletableFuture.completedFuture(new AttributeList(0));
+        } else if (item instanceof AsyncModelItem) {
+            read = ((AsyncModelItem) item).getAttributesAsync(uncached.toArray(new String[0])).toCompletableFuture();
+        } else {
+            read = new CompletableFuture<>();
+            try {
+                read.complete(item.getAttributes(uncached.toArray(new String[0])));
+            } catch (Exception e) {
+                read.completeExceptionally(e);
+            }
+        }
+        if (cached.isEmpty()) {
+            return read;
+        }
+
+        return CompletableFuture.allOf(cached.values().toArray(new CompletableFuture<?>[0]))
+                .exceptionally(t -> null)
+                .thenCombine(read, (ignored, readList) -> {
+                    final Map<String, Object> values = new HashMap<>();
+                    for (Attribute attribute : readList.asList()) {
+                        values.put(attribute.getName(), attribute.getValue());
+                    }
+                    for (Map.Entry<String, CompletableFuture<Object>> e : cached.entrySet()) {
+                        if (!e.getValue().isCompletedExceptionally()) {
+                            values.put(e.getKey(), e.getValue().join());
+                        }
+                    }
+                    final AttributeList list = new AttributeList(attributes.length);
+                    for (String attribute : attributes) {
+                        if (values.containsKey(attribute)) {
+                            list.add(new Attribute(attribute, values.get(attribute)));
+                        }
+                    }
+                    return list;
+                });
+    }
+
+    private long getMaxAgeNanos(final ModelItem item, final String attribute) {
+        if (valueCache == null) return 0L;
+        return AttributeValueCache.getMaxAgeNanos(item.getAttributeInfo(attribute));
+    }
+
+    private CompletableFuture<Object> cachedAttribute(final ModelItem item, final String attribute, long maxAge) {
+        return valueCache.get(item.getObjectName(), attribute, maxAge, () -> {
+            if (item instanceof AsyncModelItem) {
+                return ((AsyncModelItem) item).getAttributeAsync(attribute);
+            }
+            try {
+                return CompletableFuture.completedFuture(item.getAttribute(attribute));
+            } catch (Exception e) {
+                return failedStage(e);
+            }
+        });
+    }
+
+    private void invalidateValue(final ObjectName name, final String attribute) {
+        if (valueCache != null) {
+            valueCache.invalidate(name, attribute);
+        }
+    }
+
+    private static boolean isWritable(final ModelItem item, final String attribute) {
+        final MBeanAttributeInfo attributeInfo = item.getAttributeInfo(attribute);
+        return attributeInfo != null && attributeInfo.isWritable();
+    }
+
+    private static <T> CompletionStage<T> failedStage(Throwable t) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(t);
+        return future;
+    }
+
+    // The listener hooks: without a listener these only test a field, and never read the clock.
+
+    private long begin(InterceptorOperation operation, ObjectName name) {
+        final InterceptorListener l = listener;
+        if (l == null) return 0L;
+        l.before(operation, name);
+        return System.nanoTime();
+    }
+
+    private <R> R end(InterceptorOperation operation, ObjectName name, long start, R result) {
+        final InterceptorListener l = listener;
+        if (l != null) {
+            l.after(operation, name, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    private void failed(InterceptorOperation operation, ObjectName name, long start, Throwable t) {
+        final InterceptorListener l = listener;
+        if (l != null) {
+            l.error(operation, name, t, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Passes unregistrations of names in the model's domains, so that other models' churn never
+     * reaches the caches.
+     */
+    private static final class UnregistrationFilter implements NotificationFilter {
+        private static final long serialVersionUID = 1L;
+
+        private final HashSet<String> domains;
+
+        UnregistrationFilter(String[] domains) {
+            this.domains = new HashSet<>(Arrays.asList(domains));
+        }
+
+        @Override
+        public boolean isNotificationEnabled(Notification notification) {
+            return notification instanceof MBeanServerNotification
+                    && MBeanServerNotification.UNREGISTRATION_NOTIFICATION.equals(notification.getType())
+                    && domains.contains(((MBeanServerNotification) notification).getMBeanName().getDomain());
+        }
+    }
 }
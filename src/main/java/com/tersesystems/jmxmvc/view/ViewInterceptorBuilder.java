@@ -18,7 +18,6 @@
 package com.tersesystems.jmxmvc.view;
 
 import com.tersesystems.jmxmvc.model.Model;
-import com.sun.jmx.interceptor.MBeanServerInterceptor;
 import com.sun.jmx.mbeanserver.JmxMBeanServer;
 
 import javax.management.MBeanServer;
@@ -31,6 +30,9 @@ import static java.util.Objects.requireNonNull;
 public class ViewInterceptorBuilder {
     protected MBeanServer mBeanServer;
     protected Model model;
+    protected ModelItemCache itemCache = NoModelItemCache.INSTANCE;
+    protected InterceptorListener listener;
+    protected AttributeValueCache valueCache;
 
     public ViewInterceptorBuilder() throws Exception {
         mBeanServer = ManagementFactory.getPlatformMBeanServer();
@@ -54,9 +56,29 @@ public class ViewInterceptorBuilder {
         return this;
     }
 
+    public ViewInterceptorBuilder withItemCache(ModelItemCache itemCache) {
+        this.itemCache = itemCache;
+        return this;
+    }
+
+    public ViewInterceptorBuilder withListener(InterceptorListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Caches the values of attributes that declare a {@value AttributeValueCache#MAX_AGE} in their
+     * descriptor.
+     */
+    public ViewInterceptorBuilder withValueCache(AttributeValueCache valueCache) {
+        this.valueCache = valueCache;
+        return this;
+    }
+
     public ViewInterceptor build() throws Exception {
         requireNonNull(mBeanServer, "Null mbeanServer");
         requireNonNull(model, "Null model");
+        requireNonNull(itemCache, "Null itemCache");
         setInterceptorsEnabled();
 
         ViewInterceptor viewInterceptor = insertViewInterceptor(model);
@@ -69,17 +91,35 @@ public class ViewInterceptorBuilder {
         f.set(mBeanServer, true);
     }
 
+    /**
+     * Adds a view of the model to the master interceptor of the server, installing the master
+     * interceptor first if this is the first model on the server.  Every model on a server shares
+     * the one master interceptor, so adding models does not add hops to each call.
+     */
     protected ViewInterceptor insertViewInterceptor(Model model) {
         final JmxMBeanServer beanServer = (JmxMBeanServer) mBeanServer;
-        final MBeanServer defaultInterceptor = beanServer.getMBeanServerInterceptor();
         final MBeanServerDelegate delegate = beanServer.getMBeanServerDelegate();
 
         final ViewInterceptor viewInterceptor =
-                new ViewInterceptor(model, delegate, mBeanServer);
-
-        final MBeanServerInterceptor master =
-                new MasterMBeanServerInterceptor(defaultInterceptor, viewInterceptor, model.getDefaultDomain());
-        beanServer.setMBeanServerInterceptor(master);
+                new ViewInterceptor(model, delegate, mBeanServer, itemCache, listener, valueCache);
+
+        synchronized (beanServer) {
+            final MBeanServer current = beanServer.getMBeanServerInterceptor();
+            final MasterMBeanServerInterceptor master;
+            if (current instanceof MasterMBeanServerInterceptor) {
+                master = (MasterMBeanServerInterceptor) current;
+            } else {
+                master = new MasterMBeanServerInterceptor(current);
+            }
+            try {
+                master.addInterceptor(model.getDomains(), viewInterceptor);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            if (master != current) {
+                beanServer.setMBeanServerInterceptor(master);
+            }
+        }
 
         return viewInterceptor;
     }
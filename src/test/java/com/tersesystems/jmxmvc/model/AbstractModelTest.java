@@ -0,0 +1,267 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import com.tersesystems.jmxmvc.view.ViewInterceptor;
+import org.junit.jupiter.api.Test;
+
+import javax.management.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AbstractModelTest {
+
+    @Test
+    public void streamNamesIsLazy() throws Exception {
+        final NumberModel model = new NumberModel(1000);
+
+        final List<ObjectName> names;
+        try (Stream<ObjectName> stream = model.streamNames(new ObjectName("numbers:type=even,*"), n -> true)) {
+            names = stream.limit(3).collect(Collectors.toList());
+        }
+        assertEquals(Arrays.asList(name(0), name(2), name(4)), names);
+        assertTrue(model.evaluated.get() < 10, "evaluated " + model.evaluated.get());
+    }
+
+    @Test
+    public void streamsMatchQueries() throws Exception {
+        final NumberModel model = new NumberModel(100);
+        final ObjectName odd = new ObjectName("numbers:type=odd,*");
+
+        final Set<ObjectName> queried = model.queryNames(odd, n -> !n.getKeyProperty("value").endsWith("1"));
+        final Set<ObjectName> streamed = model.streamNames(odd, n -> !n.getKeyProperty("value").endsWith("1"))
+                .collect(Collectors.toSet());
+        assertEquals(40, queried.size());
+        assertEquals(queried, streamed);
+
+        final Set<ObjectInstance> instances = model.streamMBeans(odd, n -> true).collect(Collectors.toSet());
+        assertEquals(model.queryMBeans(odd, n -> true), instances);
+        assertEquals(50, instances.size());
+        for (ObjectInstance instance : instances) {
+            assertEquals("Number", instance.getClassName());
+        }
+    }
+
+    @Test
+    public void otherDomainsMatchNothing() throws Exception {
+        final NumberModel model = new NumberModel(10);
+        final ObjectName other = new ObjectName("other:*");
+
+        assertEquals(0, model.streamNames(other, n -> true).count());
+        assertTrue(model.queryNames(other, n -> true).isEmpty());
+        assertEquals(0, model.evaluated.get());
+    }
+
+    @Test
+    public void viewPagesThroughNames() throws Exception {
+        final NumberModel model = new NumberModel(100);
+        final ViewInterceptor view = new ViewInterceptor(model, new MBeanServerDelegate(),
+                MBeanServerFactory.newMBeanServer());
+        final ObjectName even = new ObjectName("numbers:type=even,*");
+
+        assertEquals(Arrays.asList(name(20), name(22), name(24)), view.queryNames(even, null, 10, 3));
+        assertEquals(Arrays.asList(name(96), name(98)), view.queryNames(even, null, 48, 10));
+        assertTrue(view.queryNames(even, null, 50, 10).isEmpty());
+    }
+
+    @Test
+    public void largeQueriesRunOnTheQueryPool() throws Exception {
+        final NumberModel model = new NumberModel(10000);
+        final Set<ObjectName> sequential = model.queryNames(new ObjectName("numbers:type=even,*"), n -> true);
+        model.threads.clear();
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            model.setParallelQueries(100, pool);
+            final Set<ObjectName> parallel = model.queryNames(new ObjectName("numbers:type=even,*"), n -> true);
+            assertEquals(sequential, parallel);
+            assertEquals(5000, parallel.size());
+            assertEquals(5000, model.queryMBeans(new ObjectName("numbers:type=even,*"), n -> true).size());
+        } finally {
+            pool.shutdown();
+        }
+
+        assertFalse(model.threads.contains(Thread.currentThread()));
+        for (Thread thread : model.threads) {
+            assertTrue(thread instanceof ForkJoinWorkerThread);
+            assertSame(pool, ((ForkJoinWorkerThread) thread).getPool());
+        }
+    }
+
+    @Test
+    public void smallQueriesRunOnTheCaller() throws Exception {
+        final NumberModel model = new NumberModel(50);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            model.setParallelQueries(100, pool);
+            assertEquals(25, model.queryNames(new ObjectName("numbers:type=odd,*"), n -> true).size());
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(Collections.singleton(Thread.currentThread()), model.threads);
+    }
+
+    @Test
+    public void parallelThresholdMustBePositive() {
+        final NumberModel model = new NumberModel(1);
+        assertThrows(IllegalArgumentException.class, () -> model.setParallelQueries(0, ForkJoinPool.commonPool()));
+        assertThrows(NullPointerException.class, () -> model.setParallelQueries(1, null));
+    }
+
+    @Test
+    public void indexedModelAnswersContainsFromTheIndex() throws Exception {
+        final IndexedNumberModel model = new IndexedNumberModel();
+        model.add(1);
+
+        assertTrue(model.contains(name(1)));
+        assertFalse(model.contains(name(2)));
+        assertFalse(model.contains(new ObjectName("other:type=odd,value=1")));
+        assertEquals(0, model.lookups.get());
+
+        model.remove(1);
+        assertFalse(model.contains(name(1)));
+    }
+
+    @Test
+    public void unindexedModelAnswersContainsFromGetItem() throws Exception {
+        final IndexedNumberModel model = new IndexedNumberModel(false);
+
+        assertFalse(model.contains(name(1)));
+        assertEquals(1, model.lookups.get());
+    }
+
+    static ObjectName name(int value) throws MalformedObjectNameException {
+        return new ObjectName("numbers:type=" + ((value % 2 == 0) ? "even" : "odd") + ",value=" + value);
+    }
+
+    /**
+     * Counts item lookups, which always miss.
+     */
+    static class IndexedNumberModel extends NumberModel {
+        final AtomicInteger lookups = new AtomicInteger();
+
+        IndexedNumberModel() {
+            this(true);
+        }
+
+        IndexedNumberModel(boolean indexed) {
+            super(0, indexed);
+        }
+
+        void add(int number) throws MalformedObjectNameException {
+            addToIndex(number);
+        }
+
+        void remove(int number) {
+            removeFromIndex(number);
+        }
+
+        @Override
+        protected Iterable<Integer> getElements() {
+            return isIndexed() ? index.getElements() : numbers;
+        }
+
+        @Override
+        public ModelItem getItem(ObjectName name) throws InstanceNotFoundException {
+            lookups.incrementAndGet();
+            throw StacklessInstanceNotFoundException.of(name);
+        }
+    }
+
+    /**
+     * The numbers from 0, in order, counting how many have been evaluated against a query and
+     * recording the threads that evaluated them.
+     */
+    static class NumberModel extends AbstractModel<Integer> {
+        final List<Integer> numbers = new ArrayList<>();
+        final AtomicInteger evaluated = new AtomicInteger();
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        NumberModel(int size) {
+            this(size, false);
+        }
+
+        NumberModel(int size, boolean indexed) {
+            super("numbers", indexed);
+            for (int i = 0; i < size; i++) {
+                numbers.add(i);
+            }
+        }
+
+        @Override
+        protected Iterable<Integer> getElements() {
+            return numbers;
+        }
+
+        @Override
+        protected Map<String, String> generateObjectNameProperties(Integer element) {
+            evaluated.incrementAndGet();
+            threads.add(Thread.currentThread());
+            final Map<String, String> properties = new HashMap<>();
+            properties.put("type", (element % 2 == 0) ? "even" : "odd");
+            properties.put("value", element.toString());
+            return properties;
+        }
+
+        @Override
+        protected MBeanInfo generateMBeanInfo(Integer element) {
+            return new MBeanInfo("Number", "A number", null, null, null, null);
+        }
+
+        @Override
+        protected String generateMBeanClassName(Integer element) {
+            return "Number";
+        }
+
+        @Override
+        public ModelItem getItem(ObjectName name) throws InstanceNotFoundException {
+            throw new InstanceNotFoundException(name.toString());
+        }
+
+        @Override
+        public void start(MBeanServerDelegate forwarder) {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public boolean isRunning() {
+            return true;
+        }
+
+        @Override
+        public Integer getMBeanCount() {
+            return numbers.size();
+        }
+    }
+}
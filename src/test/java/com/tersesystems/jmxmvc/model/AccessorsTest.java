@@ -0,0 +1,98 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.AttributeNotFoundException;
+import javax.management.InvalidAttributeValueException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessorsTest {
+
+    static final class Counter {
+        int count;
+        String label = "";
+    }
+
+    private static final Accessors<Counter> accessors = Accessors.<Counter>builder("counter", "A counter")
+            .withAttribute("Count", int.class, "The count", c -> c.count, (c, v) -> c.count = (Integer) v)
+            .withAttribute("Label", String.class, "The label", c -> c.label, (c, v) -> c.label = (String) v)
+            .withAttribute(new MBeanAttributeInfo("Zero", "boolean", "True if zero", true, false, true),
+                    boolean.class, c -> c.count == 0, null)
+            .build();
+
+    @Test
+    public void generatesMBeanInfo() {
+        final MBeanInfo info = accessors.getTypeInfo().getMBeanInfo();
+        assertEquals("counter", info.getClassName());
+        final MBeanAttributeInfo[] attributes = info.getAttributes();
+        assertEquals(3, attributes.length);
+        assertEquals("int", attributes[0].getType());
+        assertTrue(attributes[0].isWritable());
+        assertEquals("java.lang.String", attributes[1].getType());
+        assertEquals("boolean", attributes[2].getType());
+        assertTrue(attributes[2].isIs());
+        assertFalse(attributes[2].isWritable());
+    }
+
+    @Test
+    public void setsPrimitiveAttributeFromBoxedValue() throws Exception {
+        final Counter counter = new Counter();
+        accessors.set(counter, "Count", 42);
+        assertEquals(42, counter.count);
+        assertEquals(42, accessors.get(counter, "Count"));
+        assertEquals(Boolean.FALSE, accessors.get(counter, "Zero"));
+    }
+
+    @Test
+    public void rejectsWrongType() {
+        final Counter counter = new Counter();
+        assertThrows(InvalidAttributeValueException.class, () -> accessors.set(counter, "Count", 42L));
+        assertThrows(InvalidAttributeValueException.class, () -> accessors.set(counter, "Count", "42"));
+        assertThrows(InvalidAttributeValueException.class, () -> accessors.set(counter, "Label", 42));
+        assertEquals(0, counter.count);
+    }
+
+    @Test
+    public void rejectsNullForPrimitiveButNotForObject() throws Exception {
+        final Counter counter = new Counter();
+        assertThrows(InvalidAttributeValueException.class, () -> accessors.set(counter, "Count", null));
+        accessors.set(counter, "Label", null);
+        assertNull(counter.label);
+    }
+
+    @Test
+    public void readOnlyAndMissingAttributesAreNotSettable() {
+        final Counter counter = new Counter();
+        assertFalse(accessors.isWritable("Zero"));
+        assertThrows(AttributeNotFoundException.class, () -> accessors.set(counter, "Zero", true));
+        assertThrows(AttributeNotFoundException.class, () -> accessors.set(counter, "Missing", 1));
+        assertThrows(AttributeNotFoundException.class, () -> accessors.get(counter, "Missing"));
+    }
+
+    @Test
+    public void infoMustAgreeWithSetter() {
+        final MBeanAttributeInfo writable = new MBeanAttributeInfo("Count", "int", "The count", true, true, false);
+        assertThrows(IllegalArgumentException.class, () ->
+                Accessors.<Counter>builder("counter", "A counter").withAttribute(writable, int.class, c -> c.count, null));
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.*;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttributeIndexTest {
+
+    @Test
+    public void widenMovesToTheNextWholeNumberOutwards() {
+        assertEquals(Double.valueOf(9.0), AttributeIndex.widen(10.0, -1));
+        assertEquals(Double.valueOf(11.0), AttributeIndex.widen(10.0, 1));
+        assertEquals(Double.valueOf(9.0), AttributeIndex.widen(10.5, -1));
+        assertEquals(Double.valueOf(12.0), AttributeIndex.widen(10.5, 1));
+        assertEquals(Double.valueOf(-12.0), AttributeIndex.widen(-10.5, -1));
+        assertEquals(Double.valueOf(-9.0), AttributeIndex.widen(-10.5, 1));
+    }
+
+    @Test
+    public void widenDropsNonFiniteBounds() {
+        assertNull(AttributeIndex.widen(null, 1));
+        assertNull(AttributeIndex.widen(Double.NaN, -1));
+        assertNull(AttributeIndex.widen(Double.POSITIVE_INFINITY, 1));
+        assertNull(AttributeIndex.widen(Double.NEGATIVE_INFINITY, -1));
+    }
+
+    public interface ValueMBean {
+        long getValue();
+    }
+
+    /**
+     * A query compares a Long attribute as a long, truncating a fractional constant, so the index
+     * has to return candidates for every value the MBeanServer would match.
+     */
+    @Test
+    public void candidatesIncludeEveryMatchOfTheQuery() throws Exception {
+        final MBeanServer server = MBeanServerFactory.newMBeanServer();
+        final AttributeIndex<Long> index = new AttributeIndex<>("Value", v -> v);
+        for (long i = -20; i <= 20; i++) {
+            final long value = i;
+            final ValueMBean mbean = () -> value;
+            server.registerMBean(new StandardMBean(mbean, ValueMBean.class), name(i));
+            index.update(i);
+        }
+
+        final ValueExp value = Query.attr("Value");
+        assertCandidates(server, index, Query.gt(value, Query.value(10.5)), AttributeRange.greaterThan("Value", 10.5, false));
+        assertCandidates(server, index, Query.geq(value, Query.value(10.5)), AttributeRange.greaterThan("Value", 10.5, true));
+        assertCandidates(server, index, Query.lt(value, Query.value(-10.5)), AttributeRange.lessThan("Value", -10.5, false));
+        assertCandidates(server, index, Query.eq(value, Query.value(3.7)), AttributeRange.equalTo("Value", 3.7));
+        assertCandidates(server, index, Query.between(value, Query.value(-2.5), Query.value(2.5)),
+                AttributeRange.between("Value", -2.5, 2.5));
+    }
+
+    private static void assertCandidates(MBeanServer server, AttributeIndex<Long> index,
+                                         QueryExp query, AttributeRange range) throws Exception {
+        final Collection<Long> candidates = index.candidates(range);
+        final Set<ObjectName> matches = server.queryNames(new ObjectName("test:*"), query);
+        assertFalse(matches.isEmpty(), query.toString());
+        for (ObjectName name : matches) {
+            final long value = Long.parseLong(name.getKeyProperty("value"));
+            assertTrue(candidates.contains(value), range + " is missing " + value);
+        }
+    }
+
+    private static ObjectName name(long value) throws Exception {
+        return new ObjectName("test:value=" + value);
+    }
+
+    @Test
+    public void candidatesFollowUpdates() {
+        // Numeric bounds are widened by one, so the values are kept further apart than that.
+        final long[] values = {10, 20, 30};
+        final AttributeIndex<Integer> index = new AttributeIndex<>("Value", i -> values[i]);
+        for (int i = 0; i < values.length; i++) {
+            index.update(i);
+        }
+        assertEquals(set(1), new HashSet<>(index.candidates(AttributeRange.equalTo("Value", 20L))));
+
+        values[1] = 100;
+        index.update(1);
+        assertTrue(index.candidates(AttributeRange.equalTo("Value", 20L)).isEmpty());
+        assertEquals(set(1), new HashSet<>(index.candidates(AttributeRange.equalTo("Value", 100L))));
+
+        index.remove(1);
+        assertTrue(index.candidates(AttributeRange.equalTo("Value", 100L)).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void stringAndBooleanRanges() {
+        final AttributeIndex<String> names = new AttributeIndex<>("Name", s -> s);
+        for (String s : new String[]{"aa", "ab", "abc", "ac", "b"}) {
+            names.update(s);
+        }
+        assertEquals(new HashSet<>(Arrays.asList("ab", "abc")),
+                new HashSet<>(names.candidates(AttributeRange.startsWith("Name", "ab"))));
+
+        final AttributeIndex<Integer> even = new AttributeIndex<>("Even", i -> (i & 1) == 0);
+        for (int i = 0; i < 6; i++) {
+            even.update(i);
+        }
+        assertEquals(set(0, 2, 4), new HashSet<>(even.candidates(AttributeRange.equalTo("Even", true))));
+        assertTrue(even.candidates(AttributeRange.equalTo("Even", 1L)).isEmpty());
+    }
+
+    private static Set<Integer> set(Integer... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+}
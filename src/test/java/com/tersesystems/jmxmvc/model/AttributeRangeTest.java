@@ -0,0 +1,100 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttributeRangeTest {
+
+    @Test
+    public void andNarrowsBothBounds() {
+        final AttributeRange range = AttributeRange.greaterThan("Value", 100L, false)
+                .and(AttributeRange.lessThan("Value", 110L, true));
+        assertEquals(100L, range.getLow());
+        assertFalse(range.isLowInclusive());
+        assertEquals(110L, range.getHigh());
+        assertTrue(range.isHighInclusive());
+    }
+
+    @Test
+    public void andKeepsTheTighterBound() {
+        final AttributeRange range = AttributeRange.between("Value", 1L, 20L)
+                .and(AttributeRange.between("Value", 5.5, 30L));
+        assertEquals(5.5, range.getLow());
+        assertTrue(range.isLowInclusive());
+        assertEquals(20L, range.getHigh());
+    }
+
+    @Test
+    public void andPrefersExclusiveOnEqualBounds() {
+        final AttributeRange range = AttributeRange.greaterThan("Value", 10L, true)
+                .and(AttributeRange.greaterThan("Value", 10L, false));
+        assertEquals(10L, range.getLow());
+        assertFalse(range.isLowInclusive());
+        assertNull(range.getHigh());
+
+        final AttributeRange same = AttributeRange.greaterThan("Value", 10L, false)
+                .and(AttributeRange.greaterThan("Value", 10L, true));
+        assertFalse(same.isLowInclusive());
+    }
+
+    @Test
+    public void andOfDisjointRangesIsEmpty() {
+        final AttributeRange range = AttributeRange.lessThan("Value", 5L, false)
+                .and(AttributeRange.greaterThan("Value", 10L, false));
+        assertEquals(10L, range.getLow());
+        assertEquals(5L, range.getHigh());
+    }
+
+    @Test
+    public void andIsNullForDifferentAttributesOrKinds() {
+        assertNull(AttributeRange.equalTo("A", 1L).and(AttributeRange.equalTo("B", 1L)));
+        assertNull(AttributeRange.equalTo("A", 1L).and(AttributeRange.equalTo("A", "1")));
+        assertNull(AttributeRange.equalTo("A", true).and(AttributeRange.startsWith("A", "t")));
+    }
+
+    @Test
+    public void startsWithIsHalfOpen() {
+        final AttributeRange range = AttributeRange.startsWith("Name", "ab");
+        assertEquals("ab", range.getLow());
+        assertTrue(range.isLowInclusive());
+        assertEquals("ac", range.getHigh());
+        assertFalse(range.isHighInclusive());
+    }
+
+    @Test
+    public void successor() {
+        assertEquals("ac", AttributeRange.successor("ab"));
+        assertEquals("b", AttributeRange.successor("a" + Character.MAX_VALUE));
+        assertNull(AttributeRange.successor("" + Character.MAX_VALUE + Character.MAX_VALUE));
+        assertNull(AttributeRange.successor(""));
+        // Every string with the prefix sorts below the successor.
+        final String successor = AttributeRange.successor("ab");
+        assertTrue("ab".compareTo(successor) < 0);
+        assertTrue(("ab" + Character.MAX_VALUE + Character.MAX_VALUE).compareTo(successor) < 0);
+    }
+
+    @Test
+    public void startsWithEmptyPrefixIsUnbounded() {
+        final AttributeRange range = AttributeRange.startsWith("Name", "");
+        assertEquals("", range.getLow());
+        assertNull(range.getHigh());
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttributeTableTest {
+
+    private static final String[] ATTRIBUTES = {"Count", "Name"};
+
+    @Test
+    public void storesRowsByColumn() throws Exception {
+        final AttributeTable table = AttributeTable.builder(ATTRIBUTES)
+                .addRow(name("a"), new Object[]{1, "one"})
+                .addRow(name("b"), new Object[]{2, "two"})
+                .build();
+
+        assertEquals(2, table.size());
+        assertEquals(Arrays.asList(name("a"), name("b")), table.getNames());
+        assertEquals(Arrays.asList(1, 2), table.getColumn("Count"));
+        assertEquals(Arrays.asList("one", "two"), table.getColumn("Name"));
+        assertNull(table.getColumn("Missing"));
+        assertEquals("two", table.getValue(1, 1));
+        assertArrayEquals(ATTRIBUTES, table.getAttributeNames());
+    }
+
+    @Test
+    public void laysOutAttributeListsInColumnOrder() throws Exception {
+        final AttributeList list = new AttributeList();
+        list.add(new Attribute("Name", "one"));
+        list.add(new Attribute("Other", "ignored"));
+        list.add(new Attribute("Count", 1));
+
+        final AttributeTable table = AttributeTable.builder(ATTRIBUTES).addRow(name("a"), list).build();
+        assertEquals(1, table.getValue(0, 0));
+        assertEquals("one", table.getValue(0, 1));
+    }
+
+    @Test
+    public void missingValuesAreNullAndLeftOutOfRows() throws Exception {
+        final AttributeList list = new AttributeList();
+        list.add(new Attribute("Name", "one"));
+
+        final AttributeTable table = AttributeTable.builder(ATTRIBUTES).addRow(name("a"), list).build();
+        assertNull(table.getValue(0, 0));
+        assertFalse(table.isFailed(0));
+
+        final AttributeList row = table.getRow(0);
+        assertEquals(1, row.size());
+        assertEquals(new Attribute("Name", "one"), row.asList().get(0));
+    }
+
+    @Test
+    public void failedRowsKeepTheirCause() throws Exception {
+        final Exception failure = new IllegalStateException("down");
+        final AttributeTable table = AttributeTable.builder(ATTRIBUTES)
+                .addRow(name("a"), new Object[]{1, "one"})
+                .addFailedRow(name("b"), failure)
+                .build();
+
+        assertEquals(2, table.size());
+        assertFalse(table.isFailed(0));
+        assertNull(table.getFailure(0));
+        assertTrue(table.isFailed(1));
+        assertSame(failure, table.getFailure(1));
+        assertNull(table.getValue(1, 0));
+        assertEquals(0, table.getRow(1).size());
+        assertEquals(Arrays.asList(1, null), table.getColumn("Count"));
+    }
+
+    @Test
+    public void rejectsRowsOfTheWrongWidth() throws Exception {
+        final AttributeTable.Builder builder = AttributeTable.builder(ATTRIBUTES);
+        assertThrows(IllegalArgumentException.class, () -> builder.addRow(name("a"), new Object[]{1}));
+        assertThrows(IllegalArgumentException.class, () -> builder.addFailedRow(name("a"), null));
+    }
+
+    private static ObjectName name(String name) throws MalformedObjectNameException {
+        return new ObjectName("test:name=" + name);
+    }
+}
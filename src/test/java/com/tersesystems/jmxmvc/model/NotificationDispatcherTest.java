@@ -0,0 +1,225 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerNotification;
+import javax.management.Notification;
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static javax.management.MBeanServerNotification.REGISTRATION_NOTIFICATION;
+import static javax.management.MBeanServerNotification.UNREGISTRATION_NOTIFICATION;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationDispatcherTest {
+
+    @Test
+    public void deliversInSubmissionOrder() throws Exception {
+        final MBeanServerDelegate delegate = new MBeanServerDelegate();
+        final List<Notification> received = listen(delegate);
+        final List<ObjectName> names = new ArrayList<>();
+        try (NotificationDispatcher dispatcher = new NotificationDispatcher(delegate)) {
+            for (int i = 0; i < 1000; i++) {
+                final ObjectName name = name(i);
+                names.add(name);
+                assertTrue(dispatcher.submit(REGISTRATION_NOTIFICATION, name));
+            }
+        }
+
+        assertEquals(1000, received.size());
+        long sequence = 0;
+        for (int i = 0; i < 1000; i++) {
+            final MBeanServerNotification n = (MBeanServerNotification) received.get(i);
+            assertEquals(names.get(i), n.getMBeanName());
+            assertTrue(n.getSequenceNumber() > sequence);
+            sequence = n.getSequenceNumber();
+        }
+    }
+
+    @Test
+    public void dropsWhenFull() throws Exception {
+        final MBeanServerDelegate delegate = new MBeanServerDelegate();
+        final CountDownLatch delivering = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Notification> received = new CopyOnWriteArrayList<>();
+        delegate.addNotificationListener((notification, handback) -> {
+            received.add(notification);
+            delivering.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, null, null);
+
+        final NotificationDispatcher dispatcher = new NotificationDispatcher(delegate, 2, 0, TimeUnit.MILLISECONDS);
+        try {
+            // The first is taken off the queue and blocks the dispatcher thread in the listener.
+            assertTrue(dispatcher.submit(REGISTRATION_NOTIFICATION, name(0)));
+            assertTrue(delivering.await(5, TimeUnit.SECONDS));
+
+            assertTrue(dispatcher.submit(REGISTRATION_NOTIFICATION, name(1)));
+            assertTrue(dispatcher.submit(REGISTRATION_NOTIFICATION, name(2)));
+            assertEquals(2, dispatcher.getQueueDepth());
+            assertFalse(dispatcher.submit(REGISTRATION_NOTIFICATION, name(3)));
+            assertEquals(1, dispatcher.getDropped());
+            assertEquals(4, dispatcher.getSubmitted());
+        } finally {
+            release.countDown();
+            dispatcher.close();
+        }
+
+        assertEquals(3, received.size());
+        assertEquals(3, dispatcher.getDelivered());
+        assertEquals(0, dispatcher.getQueueDepth());
+    }
+
+    @Test
+    public void neverDropsUnregistrations() throws Exception {
+        final MBeanServerDelegate delegate = new MBeanServerDelegate();
+        final CountDownLatch delivering = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Notification> received = new CopyOnWriteArrayList<>();
+        delegate.addNotificationListener((notification, handback) -> {
+            received.add(notification);
+            delivering.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, null, null);
+
+        final NotificationDispatcher dispatcher = new NotificationDispatcher(delegate, 1, 0, TimeUnit.MILLISECONDS);
+        try {
+            assertTrue(dispatcher.submit(REGISTRATION_NOTIFICATION, name(0)));
+            assertTrue(delivering.await(5, TimeUnit.SECONDS));
+
+            assertTrue(dispatcher.submit(REGISTRATION_NOTIFICATION, name(1)));
+            assertFalse(dispatcher.submit(REGISTRATION_NOTIFICATION, name(2)));
+            // Past the capacity, but a view may hold the name in its caches.
+            assertTrue(dispatcher.submit(UNREGISTRATION_NOTIFICATION, name(0)));
+            assertTrue(dispatcher.submit(UNREGISTRATION_NOTIFICATION, name(1)));
+            assertEquals(3, dispatcher.getQueueDepth());
+            assertEquals(1, dispatcher.getDropped());
+        } finally {
+            release.countDown();
+            dispatcher.close();
+        }
+
+        assertEquals(4, received.size());
+        assertEquals(UNREGISTRATION_NOTIFICATION, received.get(2).getType());
+        assertEquals(UNREGISTRATION_NOTIFICATION, received.get(3).getType());
+        assertEquals(0, dispatcher.getQueueDepth());
+    }
+
+    @Test
+    public void coalescesRegistrationButKeepsUnregistration() throws Exception {
+        final MBeanServerDelegate delegate = new MBeanServerDelegate();
+        final List<Notification> received = listen(delegate);
+        final NotificationDispatcher dispatcher = new NotificationDispatcher(delegate, 16, 200, TimeUnit.MILLISECONDS);
+        try {
+            assertTrue(dispatcher.submit(REGISTRATION_NOTIFICATION, name(0)));
+            assertTrue(dispatcher.submit(REGISTRATION_NOTIFICATION, name(1)));
+            assertTrue(dispatcher.submit(UNREGISTRATION_NOTIFICATION, name(0)));
+            assertEquals(1, dispatcher.getCoalesced());
+            // The cancelled registration no longer counts against the queue.
+            assertEquals(2, dispatcher.getQueueDepth());
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (received.size() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            dispatcher.close();
+        }
+
+        assertEquals(2, received.size());
+        assertNotification(received.get(0), REGISTRATION_NOTIFICATION, name(1));
+        assertNotification(received.get(1), UNREGISTRATION_NOTIFICATION, name(0));
+        assertEquals(2, dispatcher.getDelivered());
+    }
+
+    @Test
+    public void unregistrationAfterTheWindowIsNotCoalesced() throws Exception {
+        final MBeanServerDelegate delegate = new MBeanServerDelegate();
+        final List<Notification> received = listen(delegate);
+        final NotificationDispatcher dispatcher = new NotificationDispatcher(delegate, 16, 20, TimeUnit.MILLISECONDS);
+        try {
+            dispatcher.submit(REGISTRATION_NOTIFICATION, name(0));
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (received.isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            dispatcher.submit(UNREGISTRATION_NOTIFICATION, name(0));
+        } finally {
+            dispatcher.close();
+        }
+
+        assertEquals(2, received.size());
+        assertNotification(received.get(0), REGISTRATION_NOTIFICATION, name(0));
+        assertNotification(received.get(1), UNREGISTRATION_NOTIFICATION, name(0));
+        assertEquals(0, dispatcher.getCoalesced());
+    }
+
+    @Test
+    public void closeDeliversQueuedNotificationsWithoutWaitingOutTheWindow() throws Exception {
+        final MBeanServerDelegate delegate = new MBeanServerDelegate();
+        final List<Notification> received = listen(delegate);
+        final NotificationDispatcher dispatcher = new NotificationDispatcher(delegate, 16, 60, TimeUnit.SECONDS);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(dispatcher.submit(REGISTRATION_NOTIFICATION, name(i)));
+        }
+
+        final long start = System.nanoTime();
+        dispatcher.close();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(3, received.size());
+        for (int i = 0; i < 3; i++) {
+            assertNotification(received.get(i), REGISTRATION_NOTIFICATION, name(i));
+        }
+        assertFalse(dispatcher.isRunning());
+
+        assertFalse(dispatcher.submit(REGISTRATION_NOTIFICATION, name(3)));
+        assertEquals(1, dispatcher.getDropped());
+        assertEquals(3, received.size());
+    }
+
+    private static List<Notification> listen(MBeanServerDelegate delegate) {
+        final List<Notification> received = new CopyOnWriteArrayList<>();
+        delegate.addNotificationListener((notification, handback) -> received.add(notification), null, null);
+        return received;
+    }
+
+    private static void assertNotification(Notification notification, String type, ObjectName name) {
+        assertEquals(type, notification.getType());
+        assertEquals(name, ((MBeanServerNotification) notification).getMBeanName());
+    }
+
+    private static ObjectName name(int i) throws Exception {
+        return new ObjectName("test:type=Item,name=" + i);
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObjectNameIndexTest {
+
+    @Test
+    public void mapsNamesAndElementsBothWays() throws Exception {
+        final ObjectNameIndex<String> index = new ObjectNameIndex<>();
+        index.add("a", name("type=letter,name=a"));
+
+        assertEquals(name("type=letter,name=a"), index.getName("a"));
+        assertEquals("a", index.getElement(name("type=letter,name=a")));
+        assertTrue(index.contains(name("type=letter,name=a")));
+        assertFalse(index.contains(name("type=letter,name=b")));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void candidatesComeFromTheSmallestPosting() throws Exception {
+        final ObjectNameIndex<String> index = new ObjectNameIndex<>();
+        index.add("a", name("type=vowel,name=a"));
+        index.add("b", name("type=consonant,name=b"));
+        index.add("c", name("type=consonant,name=c"));
+        index.add("e", name("type=vowel,name=e"));
+
+        assertEquals(set("b", "c"), new HashSet<>(index.candidates(name("type=consonant,*"))));
+        assertEquals(set("e"), new HashSet<>(index.candidates(name("type=vowel,name=e,*"))));
+        assertEquals(set("a", "e"), new HashSet<>(index.candidates(name("type=vowel,name=*"))));
+        assertEquals(Collections.emptySet(), new HashSet<>(index.candidates(name("type=digit,*"))));
+        assertEquals(Collections.emptySet(), new HashSet<>(index.candidates(name("color=red,*"))));
+    }
+
+    @Test
+    public void candidatesForExactNamesAndNoPattern() throws Exception {
+        final ObjectNameIndex<String> index = new ObjectNameIndex<>();
+        index.add("a", name("type=vowel,name=a"));
+        index.add("b", name("type=consonant,name=b"));
+
+        assertEquals(set("a"), new HashSet<>(index.candidates(name("type=vowel,name=a"))));
+        assertTrue(index.candidates(name("type=vowel,name=b")).isEmpty());
+        assertEquals(set("a", "b"), new HashSet<>(index.candidates(null)));
+        assertEquals(set("a", "b"), new HashSet<>(index.candidates(name("*"))));
+    }
+
+    @Test
+    public void removePrunesPostings() throws Exception {
+        final ObjectNameIndex<String> index = new ObjectNameIndex<>();
+        index.add("a", name("type=vowel,name=a"));
+        index.add("e", name("type=vowel,name=e"));
+
+        assertEquals(name("type=vowel,name=a"), index.remove("a"));
+        assertNull(index.remove("a"));
+        assertNull(index.getElement(name("type=vowel,name=a")));
+        assertTrue(index.candidates(name("name=a,*")).isEmpty());
+        assertEquals(set("e"), new HashSet<>(index.candidates(name("type=vowel,*"))));
+
+        index.remove("e");
+        assertTrue(index.candidates(name("type=vowel,*")).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void renamingMovesPostings() throws Exception {
+        final ObjectNameIndex<String> index = new ObjectNameIndex<>();
+        index.add("y", name("type=consonant,name=y"));
+        index.add("y", name("type=vowel,name=y"));
+
+        assertEquals(1, index.size());
+        assertNull(index.getElement(name("type=consonant,name=y")));
+        assertEquals("y", index.getElement(name("type=vowel,name=y")));
+        assertTrue(index.candidates(name("type=consonant,*")).isEmpty());
+        assertEquals(set("y"), new HashSet<>(index.candidates(name("type=vowel,*"))));
+    }
+
+    @Test
+    public void clearEmptiesTheIndex() throws Exception {
+        final ObjectNameIndex<String> index = new ObjectNameIndex<>();
+        index.add("a", name("type=vowel,name=a"));
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertTrue(index.getElements().isEmpty());
+        assertTrue(index.candidates(name("type=vowel,*")).isEmpty());
+    }
+
+    private static ObjectName name(String properties) throws MalformedObjectNameException {
+        return new ObjectName("test:" + properties);
+    }
+
+    private static HashSet<String> set(String... elements) {
+        return new HashSet<>(Arrays.asList(elements));
+    }
+}
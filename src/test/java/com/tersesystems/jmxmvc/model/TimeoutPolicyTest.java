@@ -0,0 +1,79 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeoutPolicyTest {
+
+    @Test
+    public void awaitReturnsTheValue() throws Exception {
+        final TimeoutPolicy policy = TimeoutPolicy.ofMillis(100);
+        assertEquals("x", policy.await(CompletableFuture.completedFuture("x")));
+    }
+
+    @Test
+    public void awaitCancelsOnTimeout() {
+        final TimeoutPolicy policy = TimeoutPolicy.ofMillis(20);
+        final CompletableFuture<String> never = new CompletableFuture<>();
+        assertThrows(TimeoutException.class, () -> policy.await(never));
+        assertTrue(never.isCancelled());
+    }
+
+    @Test
+    public void waitsWithinADeadlineShareTheTimeout() throws Exception {
+        final TimeoutPolicy policy = TimeoutPolicy.ofMillis(200);
+        final long start = System.nanoTime();
+        try (TimeoutPolicy.Deadline deadline = policy.startDeadline()) {
+            assertThrows(TimeoutException.class, () -> policy.await(new CompletableFuture<>()));
+            assertThrows(TimeoutException.class, () -> policy.await(new CompletableFuture<>()));
+            // Already completed stages are still answered once the deadline has passed.
+            assertEquals("x", policy.await(CompletableFuture.completedFuture("x")));
+        }
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMillis < 390, "both waits should end by the one deadline: " + elapsedMillis);
+    }
+
+    @Test
+    public void closingTheDeadlineRestoresTheFullTimeout() {
+        final TimeoutPolicy policy = TimeoutPolicy.ofMillis(100);
+        try (TimeoutPolicy.Deadline deadline = policy.startDeadline()) {
+            assertThrows(TimeoutException.class, () -> policy.await(new CompletableFuture<>()));
+        }
+        final long start = System.nanoTime();
+        assertThrows(TimeoutException.class, () -> policy.await(new CompletableFuture<>()));
+        assertTrue((System.nanoTime() - start) / 1_000_000 >= 90);
+    }
+
+    @Test
+    public void nestedDeadlineDoesNotOutliveTheOuterOne() throws Exception {
+        final TimeoutPolicy outer = TimeoutPolicy.ofMillis(100);
+        final TimeoutPolicy inner = TimeoutPolicy.ofMillis(10_000);
+        final long start = System.nanoTime();
+        try (TimeoutPolicy.Deadline a = outer.startDeadline();
+             TimeoutPolicy.Deadline b = inner.startDeadline()) {
+            assertThrows(TimeoutException.class, () -> inner.await(new CompletableFuture<>()));
+        }
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 5_000);
+    }
+}
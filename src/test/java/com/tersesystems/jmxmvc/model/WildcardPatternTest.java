@@ -0,0 +1,131 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WildcardPatternTest {
+
+    @Test
+    public void literal() {
+        final WildcardPattern p = WildcardPattern.compile("abc");
+        assertTrue(p.isLiteral());
+        assertTrue(p.matches("abc"));
+        assertFalse(p.matches("abcd"));
+        assertFalse(p.matches("ab"));
+    }
+
+    @Test
+    public void questionMarkMatchesExactlyOneCharacter() {
+        final WildcardPattern p = WildcardPattern.compile("a?c");
+        assertFalse(p.isLiteral());
+        assertTrue(p.matches("abc"));
+        assertTrue(p.matches("a?c"));
+        assertFalse(p.matches("ac"));
+        assertFalse(p.matches("abbc"));
+        assertTrue(WildcardPattern.compile("*?").matches("x"));
+        assertFalse(WildcardPattern.compile("*?").matches(""));
+        assertTrue(WildcardPattern.compile("*a?b*").matches("xxaxbyy"));
+        assertFalse(WildcardPattern.compile("*a?b*").matches("xxabyy"));
+    }
+
+    @Test
+    public void starMatchesAnything() {
+        final WildcardPattern p = WildcardPattern.compile("*");
+        assertTrue(p.isAny());
+        assertTrue(p.matches(""));
+        assertTrue(p.matches("anything"));
+        assertTrue(WildcardPattern.compile("**").isAny());
+    }
+
+    @Test
+    public void segmentsInOrder() {
+        final WildcardPattern p = WildcardPattern.compile("*a*b*c*");
+        assertTrue(p.matches("abc"));
+        assertTrue(p.matches("xxaxxbxxcxx"));
+        assertTrue(p.matches("cbaabc"));
+        assertFalse(p.matches("acb"));
+        assertFalse(p.matches("cba"));
+        assertFalse(p.matches("ab"));
+    }
+
+    @Test
+    public void prefixAndSuffixDoNotOverlap() {
+        final WildcardPattern p = WildcardPattern.compile("ab*ba");
+        assertFalse(p.matches("aba"));
+        assertFalse(p.matches("ab"));
+        assertTrue(p.matches("abba"));
+        assertTrue(p.matches("abxba"));
+        assertFalse(WildcardPattern.compile("a*a").matches("a"));
+        assertTrue(WildcardPattern.compile("a*a").matches("aa"));
+    }
+
+    @Test
+    public void middleSegmentsDoNotOverlapTheEnds() {
+        assertTrue(WildcardPattern.compile("a*b*c").matches("abc"));
+        assertFalse(WildcardPattern.compile("*bc*c").matches("abc"));
+        assertTrue(WildcardPattern.compile("*bc*c").matches("abcc"));
+    }
+
+    @Test
+    public void repetitiveSegments() {
+        // Partial matches that the search has to fall back from.
+        assertTrue(WildcardPattern.compile("*aab*").matches("aaab"));
+        assertTrue(WildcardPattern.compile("*abab*").matches("abaabab"));
+        assertTrue(WildcardPattern.compile("*abcabd*").matches("abcabcabd"));
+        assertFalse(WildcardPattern.compile("*abcabd*").matches("abcabcab"));
+    }
+
+    @Test
+    public void agreesWithBacktrackingMatcher() {
+        final Random random = new Random(42);
+        final char[] alphabet = {'a', 'b'};
+        final char[] patternAlphabet = {'a', 'b', '*', '?'};
+        for (int n = 0; n < 20000; n++) {
+            final String pattern = randomString(random, patternAlphabet, 6);
+            final String input = randomString(random, alphabet, 8);
+            assertEquals(backtrack(pattern, 0, input, 0), WildcardPattern.compile(pattern).matches(input),
+                    pattern + " against " + input);
+        }
+    }
+
+    private static String randomString(Random random, char[] alphabet, int maxLength) {
+        final int length = random.nextInt(maxLength + 1);
+        final StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet[random.nextInt(alphabet.length)]);
+        }
+        return builder.toString();
+    }
+
+    private static boolean backtrack(String p, int pi, String s, int si) {
+        if (pi == p.length()) return si == s.length();
+        final char c = p.charAt(pi);
+        if (c == '*') {
+            for (int i = si; i <= s.length(); i++) {
+                if (backtrack(p, pi + 1, s, i)) return true;
+            }
+            return false;
+        }
+        return si < s.length() && (c == '?' || c == s.charAt(si)) && backtrack(p, pi + 1, s, si + 1);
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.ImmutableDescriptor;
+import javax.management.MBeanAttributeInfo;
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttributeValueCacheTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toNanos(1);
+
+    @Test
+    public void concurrentReadersShareOneLoad() throws Exception {
+        final AttributeValueCache cache = new AttributeValueCache();
+        final CompletableFuture<Object> read = new CompletableFuture<>();
+        final AtomicInteger loads = new AtomicInteger();
+        final Supplier<CompletionStage<?>> loader = () -> {
+            loads.incrementAndGet();
+            return read;
+        };
+
+        final List<CompletableFuture<Object>> readers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            readers.add(cache.get(name(0), "A", HOUR, loader));
+        }
+        assertEquals(1, loads.get());
+        for (CompletableFuture<Object> reader : readers) {
+            assertFalse(reader.isDone());
+        }
+
+        read.complete("value");
+        for (CompletableFuture<Object> reader : readers) {
+            assertEquals("value", reader.get(1, TimeUnit.SECONDS));
+        }
+        assertEquals("value", cache.get(name(0), "A", HOUR, loader).get(1, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void cancellingAReaderDoesNotCancelTheLoad() throws Exception {
+        final AttributeValueCache cache = new AttributeValueCache();
+        final CompletableFuture<Object> read = new CompletableFuture<>();
+        final CompletableFuture<Object> first = cache.get(name(0), "A", HOUR, () -> read);
+        final CompletableFuture<Object> second = cache.get(name(0), "A", HOUR, () -> read);
+        first.cancel(false);
+        assertFalse(read.isCancelled());
+        read.complete(1);
+        assertEquals(1, second.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void expiredValuesAreReloaded() throws Exception {
+        final AttributeValueCache cache = new AttributeValueCache();
+        final Counter counter = new Counter();
+        assertEquals(1, cache.get(name(0), "A", 1L, counter).get(1, TimeUnit.SECONDS));
+        Thread.sleep(1);
+        assertEquals(2, cache.get(name(0), "A", 1L, counter).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failuresAreNotCached() throws Exception {
+        final AttributeValueCache cache = new AttributeValueCache();
+        final CompletableFuture<Object> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("down"));
+        final ExecutionException e = assertThrows(ExecutionException.class,
+                () -> cache.get(name(0), "A", HOUR, () -> failed).get(1, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertEquals(0, cache.size());
+
+        assertThrows(ExecutionException.class, () -> cache.get(name(0), "A", HOUR, () -> {
+            throw new IllegalStateException("thrown");
+        }).get(1, TimeUnit.SECONDS));
+        assertEquals(0, cache.size());
+
+        final Counter counter = new Counter();
+        assertEquals(1, cache.get(name(0), "A", HOUR, counter).get(1, TimeUnit.SECONDS));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void invalidationForcesAReload() throws Exception {
+        final AttributeValueCache cache = new AttributeValueCache();
+        final Counter counter = new Counter();
+        cache.get(name(0), "A", HOUR, counter).get();
+        cache.get(name(0), "B", HOUR, counter).get();
+        cache.get(name(1), "A", HOUR, counter).get();
+        assertEquals(3, cache.size());
+
+        cache.invalidate(name(0), "A");
+        assertEquals(2, cache.size());
+        assertEquals(4, cache.get(name(0), "A", HOUR, counter).get());
+        assertEquals(2, cache.get(name(0), "B", HOUR, counter).get());
+
+        cache.invalidate(name(0));
+        assertEquals(1, cache.size());
+        assertEquals(5, cache.get(name(0), "B", HOUR, counter).get());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(6, cache.get(name(1), "A", HOUR, counter).get());
+    }
+
+    @Test
+    public void invalidationDuringALoadIsNotUndone() throws Exception {
+        final AttributeValueCache cache = new AttributeValueCache();
+        final CompletableFuture<Object> read = new CompletableFuture<>();
+        final CompletableFuture<Object> stale = cache.get(name(0), "A", HOUR, () -> read);
+        cache.invalidate(name(0), "A");
+        read.complete("old");
+        assertEquals("old", stale.get());
+
+        final Counter counter = new Counter();
+        assertEquals(1, cache.get(name(0), "A", HOUR, counter).get());
+    }
+
+    @Test
+    public void staysWithinItsMaximumSize() throws Exception {
+        final AttributeValueCache cache = new AttributeValueCache(100);
+        final Counter counter = new Counter();
+        for (int i = 0; i < 1000; i++) {
+            cache.get(name(i), "A", HOUR, counter).get();
+            assertTrue(cache.size() <= 100, "size " + cache.size());
+        }
+        // The most recent values survive the sweeps.
+        final int loads = counter.count.get();
+        cache.get(name(999), "A", HOUR, counter).get();
+        assertEquals(loads, counter.count.get());
+    }
+
+    @Test
+    public void sweepRemovesExpiredValuesFirst() throws Exception {
+        final AttributeValueCache cache = new AttributeValueCache(10);
+        final Counter counter = new Counter();
+        for (int i = 0; i < 5; i++) {
+            cache.get(name(i), "Fresh", HOUR, counter).get();
+        }
+        for (int i = 0; i < 5; i++) {
+            cache.get(name(i), "Expiring", 1L, counter).get();
+        }
+        Thread.sleep(1);
+        cache.get(name(100), "Fresh", HOUR, counter).get();
+
+        assertEquals(6, cache.size());
+        final int loads = counter.count.get();
+        for (int i = 0; i < 5; i++) {
+            cache.get(name(i), "Fresh", HOUR, counter).get();
+        }
+        assertEquals(loads, counter.count.get());
+    }
+
+    @Test
+    public void loadsInProgressAreNotEvicted() throws Exception {
+        final AttributeValueCache cache = new AttributeValueCache(2);
+        final AtomicInteger loads = new AtomicInteger();
+        final CompletableFuture<Object> read = new CompletableFuture<>();
+        final Supplier<CompletionStage<?>> pending = () -> {
+            loads.incrementAndGet();
+            return read;
+        };
+        cache.get(name(0), "A", HOUR, pending);
+        final Counter counter = new Counter();
+        for (int i = 1; i < 10; i++) {
+            cache.get(name(i), "A", HOUR, counter).get();
+        }
+        cache.get(name(0), "A", HOUR, pending);
+        assertEquals(1, loads.get());
+        read.complete("done");
+    }
+
+    @Test
+    public void maxAgeFromDescriptor() {
+        assertEquals(0L, AttributeValueCache.getMaxAgeNanos(null));
+        assertEquals(0L, AttributeValueCache.getMaxAgeNanos(info(null)));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), AttributeValueCache.getMaxAgeNanos(info(1000)));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(250), AttributeValueCache.getMaxAgeNanos(info(" 250 ")));
+        assertEquals(0L, AttributeValueCache.getMaxAgeNanos(info("soon")));
+        assertEquals(0L, AttributeValueCache.getMaxAgeNanos(info(-5)));
+    }
+
+    @Test
+    public void rejectsNonPositiveMaximumSize() {
+        assertThrows(IllegalArgumentException.class, () -> new AttributeValueCache(0));
+    }
+
+    private static MBeanAttributeInfo info(Object maxAge) {
+        final ImmutableDescriptor descriptor = (maxAge == null)
+                ? ImmutableDescriptor.EMPTY_DESCRIPTOR
+                : new ImmutableDescriptor(new String[]{ AttributeValueCache.MAX_AGE }, new Object[]{ maxAge });
+        return new MBeanAttributeInfo("A", "int", "An attribute", true, false, false, descriptor);
+    }
+
+    private static ObjectName name(int i) throws Exception {
+        return new ObjectName("test:type=Item,name=" + i);
+    }
+
+    private static final class Counter implements Supplier<CompletionStage<?>> {
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public CompletionStage<?> get() {
+            return CompletableFuture.completedFuture(count.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+import com.tersesystems.jmxmvc.model.Model;
+import com.tersesystems.jmxmvc.model.ModelItem;
+import org.junit.jupiter.api.Test;
+
+import javax.management.*;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedModelItemCacheTest {
+
+    @Test
+    public void returnsCachedItem() throws Exception {
+        final CountingModel model = new CountingModel();
+        final BoundedModelItemCache cache = new BoundedModelItemCache(10, 1, TimeUnit.MINUTES);
+        final ObjectName a = name("a");
+
+        final ModelItem first = cache.getItem(a, model);
+        assertSame(first, cache.getItem(a, model));
+        assertEquals(1, model.loads);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Exception {
+        final CountingModel model = new CountingModel();
+        final BoundedModelItemCache cache = new BoundedModelItemCache(2, 1, TimeUnit.MINUTES);
+        final ObjectName a = name("a");
+        final ObjectName b = name("b");
+        final ObjectName c = name("c");
+
+        cache.getItem(a, model);
+        cache.getItem(b, model);
+        cache.getItem(a, model); // a is now more recently used than b
+        cache.getItem(c, model); // evicts b
+        assertEquals(3, model.loads);
+        assertEquals(2, cache.size());
+
+        cache.getItem(a, model);
+        assertEquals(3, model.loads);
+        cache.getItem(b, model);
+        assertEquals(4, model.loads);
+    }
+
+    @Test
+    public void expiresAfterTimeToLive() throws Exception {
+        final CountingModel model = new CountingModel();
+        final BoundedModelItemCache cache = new BoundedModelItemCache(10, 10, TimeUnit.MILLISECONDS);
+        final ObjectName a = name("a");
+
+        final ModelItem first = cache.getItem(a, model);
+        Thread.sleep(30);
+        final ModelItem second = cache.getItem(a, model);
+        assertNotSame(first, second);
+        assertEquals(2, model.loads);
+    }
+
+    @Test
+    public void invalidateRemovesItem() throws Exception {
+        final CountingModel model = new CountingModel();
+        final BoundedModelItemCache cache = new BoundedModelItemCache(10, 1, TimeUnit.MINUTES);
+        final ObjectName a = name("a");
+
+        cache.getItem(a, model);
+        cache.invalidate(a);
+        assertEquals(0, cache.size());
+        cache.getItem(a, model);
+        assertEquals(2, model.loads);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void invalidatingUncachedNamesKeepsCachedItems() throws Exception {
+        final CountingModel model = new CountingModel();
+        final BoundedModelItemCache cache = new BoundedModelItemCache(2, 1, TimeUnit.MINUTES);
+        final ObjectName a = name("a");
+        final ObjectName b = name("b");
+        cache.getItem(a, model);
+        cache.getItem(b, model);
+
+        // Unregistrations of names this cache never held, as from other models.
+        for (int i = 0; i < 100; i++) {
+            cache.invalidate(name("other" + i));
+        }
+        assertEquals(2, cache.size());
+        cache.getItem(a, model);
+        cache.getItem(b, model);
+        assertEquals(2, model.loads);
+    }
+
+    @Test
+    public void invalidateDuringLoadIsNotUndone() throws Exception {
+        final BoundedModelItemCache cache = new BoundedModelItemCache(10, 1, TimeUnit.MINUTES);
+        final ObjectName a = name("a");
+        // The name is unregistered while the model is still resolving it.
+        final CountingModel model = new CountingModel(cache::invalidate);
+
+        final ModelItem loaded = cache.getItem(a, model);
+        assertNotNull(loaded);
+        assertEquals(0, cache.size());
+
+        final CountingModel quiet = new CountingModel();
+        assertNotSame(loaded, cache.getItem(a, quiet));
+        assertEquals(1, quiet.loads);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void invalidateAllDuringLoadIsNotUndone() throws Exception {
+        final BoundedModelItemCache cache = new BoundedModelItemCache(10, 1, TimeUnit.MINUTES);
+        final CountingModel model = new CountingModel(n -> cache.invalidateAll());
+
+        cache.getItem(name("a"), model);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void missIsNotCached() throws Exception {
+        final CountingModel model = new CountingModel();
+        final BoundedModelItemCache cache = new BoundedModelItemCache(10, 1, TimeUnit.MINUTES);
+
+        assertThrows(InstanceNotFoundException.class, () -> cache.getItem(name("missing"), model));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void viewOnlyInvalidatesNamesInItsDomains() throws Exception {
+        final CountingModel model = new CountingModel();
+        final BoundedModelItemCache cache = new BoundedModelItemCache(10, 1, TimeUnit.MINUTES);
+        final MBeanServerDelegate delegate = new MBeanServerDelegate();
+        final ViewInterceptor view = new ViewInterceptor(model, delegate, MBeanServerFactory.newMBeanServer(), cache);
+        view.start();
+        try {
+            view.getItem(name("a"));
+            assertEquals(1, cache.size());
+
+            delegate.sendNotification(new MBeanServerNotification(
+                    MBeanServerNotification.UNREGISTRATION_NOTIFICATION, MBeanServerDelegate.DELEGATE_NAME, 0,
+                    new ObjectName("other:name=a")));
+            delegate.sendNotification(new MBeanServerNotification(
+                    MBeanServerNotification.REGISTRATION_NOTIFICATION, MBeanServerDelegate.DELEGATE_NAME, 0,
+                    name("a")));
+            assertEquals(1, cache.size());
+
+            delegate.sendNotification(new MBeanServerNotification(
+                    MBeanServerNotification.UNREGISTRATION_NOTIFICATION, MBeanServerDelegate.DELEGATE_NAME, 0,
+                    name("a")));
+            assertEquals(0, cache.size());
+        } finally {
+            view.stop();
+        }
+    }
+
+    private static ObjectName name(String name) throws MalformedObjectNameException {
+        return new ObjectName("test:name=" + name);
+    }
+
+    /**
+     * Creates a new item on every call, and runs the hook while "resolving" it.
+     */
+    static final class CountingModel implements Model {
+        private final Consumer<ObjectName> duringLoad;
+        int loads;
+
+        CountingModel() {
+            this(n -> { });
+        }
+
+        CountingModel(Consumer<ObjectName> duringLoad) {
+            this.duringLoad = duringLoad;
+        }
+
+        @Override
+        public ModelItem getItem(ObjectName name) throws InstanceNotFoundException {
+            if ("missing".equals(name.getKeyProperty("name"))) {
+                throw new InstanceNotFoundException(name.toString());
+            }
+            loads++;
+            duringLoad.accept(name);
+            return new Item(name);
+        }
+
+        @Override
+        public void start(MBeanServerDelegate forwarder) {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public boolean isRunning() {
+            return true;
+        }
+
+        @Override
+        public Set<ObjectInstance> queryMBeans(ObjectName name, Function<ObjectName, Boolean> queryFunction) {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Set<ObjectName> queryNames(ObjectName name, Function<ObjectName, Boolean> queryFunction) {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public String getDefaultDomain() {
+            return "test";
+        }
+
+        @Override
+        public String[] getDomains() {
+            return new String[]{"test"};
+        }
+
+        @Override
+        public Integer getMBeanCount() {
+            return 0;
+        }
+
+        @Override
+        public Object invoke(ModelItem item, String operationName, Object[] params, String[] signature) {
+            return null;
+        }
+    }
+
+    static final class Item implements ModelItem {
+        private final ObjectName name;
+
+        Item(ObjectName name) {
+            this.name = name;
+        }
+
+        @Override
+        public ObjectName getObjectName() {
+            return name;
+        }
+
+        @Override
+        public ObjectInstance getObjectInstance() {
+            return new ObjectInstance(name, "test");
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            return new MBeanInfo("test", "test", null, null, null, null);
+        }
+
+        @Override
+        public Object invoke(String operationName, Object[] params, String[] signature) {
+            return null;
+        }
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        @Override
+        public boolean isInstanceOf(String className) {
+            return "test".equals(className);
+        }
+    }
+}
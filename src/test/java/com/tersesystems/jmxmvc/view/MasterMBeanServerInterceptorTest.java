@@ -0,0 +1,92 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.timer.Timer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MasterMBeanServerInterceptorTest {
+
+    @Test
+    public void routesAddedDomains() {
+        final MasterMBeanServerInterceptor master = new MasterMBeanServerInterceptor(MBeanServerFactory.newMBeanServer());
+        final MBeanServer view = MBeanServerFactory.newMBeanServer();
+        master.addInterceptor(new String[]{ "a", "b" }, view);
+        assertSame(view, master.getInterceptor("a"));
+        assertSame(view, master.getInterceptor("b"));
+        assertNull(master.getInterceptor("c"));
+
+        // Adding the same interceptor again is allowed.
+        master.addInterceptor("a", view);
+        assertSame(view, master.removeInterceptor("a"));
+        assertNull(master.getInterceptor("a"));
+    }
+
+    @Test
+    public void rejectsTheMetricsDomain() {
+        final MasterMBeanServerInterceptor master = new MasterMBeanServerInterceptor(MBeanServerFactory.newMBeanServer());
+        final MBeanServer view = MBeanServerFactory.newMBeanServer();
+        assertThrows(IllegalArgumentException.class, () -> master.addInterceptor(InterceptorMetrics.DOMAIN, view));
+        assertNull(master.getInterceptor(InterceptorMetrics.DOMAIN));
+    }
+
+    @Test
+    public void rejectsADomainOwnedByAnotherInterceptor() {
+        final MasterMBeanServerInterceptor master = new MasterMBeanServerInterceptor(MBeanServerFactory.newMBeanServer());
+        final MBeanServer first = MBeanServerFactory.newMBeanServer();
+        final MBeanServer second = MBeanServerFactory.newMBeanServer();
+        master.addInterceptor("a", first);
+        assertThrows(IllegalArgumentException.class, () -> master.addInterceptor("a", second));
+        assertSame(first, master.getInterceptor("a"));
+    }
+
+    @Test
+    public void addsAllDomainsOrNone() {
+        final MasterMBeanServerInterceptor master = new MasterMBeanServerInterceptor(MBeanServerFactory.newMBeanServer());
+        final MBeanServer first = MBeanServerFactory.newMBeanServer();
+        final MBeanServer second = MBeanServerFactory.newMBeanServer();
+        master.addInterceptor("b", first);
+
+        assertThrows(IllegalArgumentException.class, () -> master.addInterceptor(new String[]{ "a", "b", "c" }, second));
+        assertNull(master.getInterceptor("a"));
+        assertSame(first, master.getInterceptor("b"));
+        assertNull(master.getInterceptor("c"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> master.addInterceptor(new String[]{ "d", InterceptorMetrics.DOMAIN }, second));
+        assertNull(master.getInterceptor("d"));
+    }
+
+    @Test
+    public void isRegisteredOnlyAsksTheOwnerOfTheDomain() throws Exception {
+        final MBeanServer defaultServer = MBeanServerFactory.newMBeanServer();
+        defaultServer.registerMBean(new Timer(), new ObjectName("a:name=timer"));
+        final MasterMBeanServerInterceptor master = new MasterMBeanServerInterceptor(defaultServer);
+        master.addInterceptor("a", MBeanServerFactory.newMBeanServer());
+
+        assertFalse(master.isRegistered(new ObjectName("a:name=timer")));
+        assertTrue(master.isRegistered(MBeanServerDelegate.DELEGATE_NAME));
+    }
+}
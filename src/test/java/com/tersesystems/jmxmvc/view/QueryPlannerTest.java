@@ -0,0 +1,96 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+import com.tersesystems.jmxmvc.model.AttributeRange;
+import org.junit.jupiter.api.Test;
+
+import javax.management.Query;
+import javax.management.QueryExp;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryPlannerTest {
+
+    @Test
+    public void literalPrefixStopsAtTheFirstWildcardOrEscape() {
+        assertEquals("abc", QueryPlanner.literalPrefix("abc"));
+        assertEquals("ab", QueryPlanner.literalPrefix("ab*"));
+        assertEquals("a", QueryPlanner.literalPrefix("a?c"));
+        assertEquals("a", QueryPlanner.literalPrefix("a[bc]d"));
+        assertEquals("a", QueryPlanner.literalPrefix("a\\*b"));
+        assertEquals("", QueryPlanner.literalPrefix("*abc"));
+        assertEquals("", QueryPlanner.literalPrefix(""));
+    }
+
+    @Test
+    public void isEnabled() {
+        // The build opens javax.management to the tests on Java 9 and later.
+        assertTrue(QueryPlanner.isEnabled());
+    }
+
+    @Test
+    public void mergesRangesOnTheSameAttribute() {
+        final QueryExp query = Query.and(
+                Query.gt(Query.attr("Value"), Query.value(100)),
+                Query.lt(Query.attr("Value"), Query.value(110)));
+        final List<AttributeRange> ranges = QueryPlanner.ranges(query);
+        assertEquals(1, ranges.size());
+        final AttributeRange range = ranges.get(0);
+        assertEquals("Value", range.getAttribute());
+        assertEquals(100L, range.getLow());
+        assertFalse(range.isLowInclusive());
+        assertEquals(110L, range.getHigh());
+        assertFalse(range.isHighInclusive());
+    }
+
+    @Test
+    public void reversesConstantOnTheLeft() {
+        final List<AttributeRange> ranges = QueryPlanner.ranges(Query.leq(Query.value(10), Query.attr("Value")));
+        assertEquals(1, ranges.size());
+        assertEquals(10L, ranges.get(0).getLow());
+        assertTrue(ranges.get(0).isLowInclusive());
+        assertNull(ranges.get(0).getHigh());
+    }
+
+    @Test
+    public void plansMatchAsPrefix() {
+        final List<AttributeRange> ranges = QueryPlanner.ranges(Query.match(Query.attr("Type"), Query.value("t1*")));
+        assertEquals(1, ranges.size());
+        assertEquals("t1", ranges.get(0).getLow());
+        assertEquals("t2", ranges.get(0).getHigh());
+    }
+
+    @Test
+    public void ignoresWhatItCannotPlan() {
+        assertTrue(QueryPlanner.ranges(null).isEmpty());
+        assertTrue(QueryPlanner.ranges(Query.or(
+                Query.eq(Query.attr("Value"), Query.value(1)),
+                Query.eq(Query.attr("Value"), Query.value(2)))).isEmpty());
+        assertTrue(QueryPlanner.ranges(Query.not(Query.eq(Query.attr("Value"), Query.value(1)))).isEmpty());
+        assertTrue(QueryPlanner.ranges(Query.eq(Query.attr("A"), Query.attr("B"))).isEmpty());
+
+        final List<AttributeRange> partial = QueryPlanner.ranges(Query.and(
+                Query.eq(Query.attr("Even"), Query.value(true)),
+                Query.or(Query.eq(Query.attr("Value"), Query.value(1)), Query.eq(Query.attr("Value"), Query.value(2)))));
+        assertEquals(1, partial.size());
+        assertEquals("Even", partial.get(0).getAttribute());
+        assertEquals(Boolean.TRUE, partial.get(0).getLow());
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+import com.tersesystems.jmxmvc.view.ViewInterceptorTest.CounterModel;
+import org.junit.jupiter.api.Test;
+
+import javax.management.*;
+import javax.management.timer.Timer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static com.tersesystems.jmxmvc.view.ViewInterceptorTest.name;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryServerTest {
+
+    @Test
+    public void boundNameIsReadFromOneItem() throws Exception {
+        final CounterModel model = new CounterModel("a");
+        model.counters.get(name("a")).count = 3;
+        final QueryServer queryServer = new QueryServer(view(model), MBeanServerFactory.newMBeanServer());
+
+        queryServer.bind(name("a"));
+        assertEquals(3, queryServer.getAttribute(name("a"), "Count"));
+        assertEquals("", queryServer.getAttribute(name("a"), "Label"));
+        assertEquals(2, queryServer.getAttributes(name("a"), new String[]{"Count", "Zero"}).size());
+        assertEquals("counter", queryServer.getMBeanInfo(name("a")).getClassName());
+        assertTrue(queryServer.isInstanceOf(name("a"), "counter"));
+        assertTrue(queryServer.isRegistered(name("a")));
+        assertEquals(1, model.lookups);
+
+        // Binding again resolves the item again.
+        queryServer.bind(name("a"));
+        assertEquals(3, queryServer.getAttribute(name("a"), "Count"));
+        assertEquals(2, model.lookups);
+    }
+
+    @Test
+    public void missingBoundNameIsResolvedOnce() throws Exception {
+        final CounterModel model = new CounterModel("a");
+        final QueryServer queryServer = new QueryServer(view(model), MBeanServerFactory.newMBeanServer());
+
+        queryServer.bind(name("missing"));
+        assertThrows(InstanceNotFoundException.class, () -> queryServer.getAttribute(name("missing"), "Count"));
+        assertThrows(InstanceNotFoundException.class, () -> queryServer.getObjectInstance(name("missing")));
+        assertFalse(queryServer.isRegistered(name("missing")));
+        assertEquals(1, model.lookups);
+    }
+
+    @Test
+    public void otherNamesGoToTheServer() throws Exception {
+        final CounterModel model = new CounterModel("a");
+        final MBeanServer server = MBeanServerFactory.newMBeanServer();
+        final ObjectName timer = new ObjectName("other:name=timer");
+        server.registerMBean(new Timer(), timer);
+        final QueryServer queryServer = new QueryServer(view(model), server);
+
+        queryServer.bind(name("a"));
+        assertEquals(Boolean.FALSE, queryServer.getAttribute(timer, "Active"));
+        assertTrue(queryServer.isRegistered(timer));
+        assertFalse(queryServer.isRegistered(name("b")));
+        assertThrows(InstanceNotFoundException.class, () -> queryServer.getAttribute(name("b"), "Count"));
+
+        queryServer.unbind();
+        assertThrows(InstanceNotFoundException.class, () -> queryServer.getAttribute(name("a"), "Count"));
+        assertEquals(0, model.lookups);
+    }
+
+    @Test
+    public void queriesResolveEachItemOnce() throws Exception {
+        final CounterModel model = new CounterModel("a", "b", "c");
+        model.counters.get(name("a")).count = 1;
+        model.counters.get(name("b")).count = 2;
+        model.counters.get(name("b")).label = "x";
+        model.counters.get(name("c")).count = 3;
+        model.counters.get(name("c")).label = "x";
+        final ViewInterceptor view = view(model);
+
+        final QueryExp query = Query.and(
+                Query.gt(Query.attr("Count"), Query.value(1)),
+                Query.eq(Query.attr("Label"), Query.value("x")));
+        assertEquals(new HashSet<>(Arrays.asList(name("b"), name("c"))), view.queryNames(name("*"), query));
+        assertEquals(3, model.lookups);
+
+        assertEquals(Collections.singleton(name("c")),
+                view.queryNames(name("*"), Query.eq(Query.attr("Count"), Query.value(3))));
+    }
+
+    private static ViewInterceptor view(CounterModel model) {
+        return new ViewInterceptor(model, new MBeanServerDelegate(), MBeanServerFactory.newMBeanServer());
+    }
+}
@@ -0,0 +1,505 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright ${year} ${name} <${email}>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tersesystems.jmxmvc.view;
+
+import com.tersesystems.jmxmvc.model.AbstractModel;
+import com.tersesystems.jmxmvc.model.Accessors;
+import com.tersesystems.jmxmvc.model.AsyncModel;
+import com.tersesystems.jmxmvc.model.AsyncModelItem;
+import com.tersesystems.jmxmvc.model.AttributeTable;
+import com.tersesystems.jmxmvc.model.ModelItem;
+import com.tersesystems.jmxmvc.model.TimeoutPolicy;
+import org.junit.jupiter.api.Test;
+
+import javax.management.*;
+import javax.management.modelmbean.DescriptorSupport;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ViewInterceptorTest {
+
+    @Test
+    public void asyncReadsUseValueCache() throws Exception {
+        final AsyncTestModel model = new AsyncTestModel("a");
+        final ViewInterceptor view = view(model);
+        final ObjectName a = name("a");
+
+        for (int i = 0; i < 3; i++) {
+            final AttributeList list = view.getAttributesAsync(a, new String[]{"Cached", "Live"})
+                    .toCompletableFuture().get(1, TimeUnit.SECONDS);
+            assertEquals(2, list.size());
+            assertEquals("Cached", list.asList().get(0).getName());
+            assertEquals("Live", list.asList().get(1).getName());
+        }
+        assertEquals(1, model.reads("Cached"));
+        assertEquals(3, model.reads("Live"));
+
+        view.getAttributeAsync(a, "Cached").toCompletableFuture().get(1, TimeUnit.SECONDS);
+        assertEquals(1, model.reads("Cached"));
+    }
+
+    @Test
+    public void asyncReadsShareCacheWithSyncReads() throws Exception {
+        final AsyncTestModel model = new AsyncTestModel("a");
+        final ViewInterceptor view = view(model);
+        final ObjectName a = name("a");
+
+        view.getAttributes(a, new String[]{"Cached"});
+        view.getAttributesAsync(a, new String[]{"Cached"}).toCompletableFuture().get(1, TimeUnit.SECONDS);
+        assertEquals(1, model.reads("Cached"));
+    }
+
+    @Test
+    public void asyncReadsLeaveOutFailedCachedAttributes() throws Exception {
+        final AsyncTestModel model = new AsyncTestModel("a");
+        final ViewInterceptor view = view(model);
+
+        final AttributeList list = view.getAttributesAsync(name("a"), new String[]{"Broken", "Live"})
+                .toCompletableFuture().get(1, TimeUnit.SECONDS);
+        assertEquals(1, list.size());
+        assertEquals("Live", list.asList().get(0).getName());
+    }
+
+    @Test
+    public void asyncReadOfMissingItemFails() throws Exception {
+        final ViewInterceptor view = view(new AsyncTestModel("a"));
+
+        final CompletableFuture<AttributeList> future =
+                view.getAttributesAsync(name("missing"), new String[]{"Live"}).toCompletableFuture();
+        final Exception e = assertThrows(Exception.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof InstanceNotFoundException);
+    }
+
+    @Test
+    public void exportReadsEveryRow() throws Exception {
+        final AsyncTestModel model = new AsyncTestModel("a", "b");
+        final ViewInterceptor view = view(model);
+
+        final AttributeTable table = view.exportAttributes(name("*"), new String[]{"Cached", "Live"});
+        assertEquals(2, table.size());
+        for (int row = 0; row < table.size(); row++) {
+            final String n = table.getName(row).getKeyProperty("name");
+            assertFalse(table.isFailed(row));
+            assertEquals("Cached:" + n, table.getValue(row, 0));
+            assertEquals("Live:" + n, table.getValue(row, 1));
+        }
+
+        view.exportAttributes(name("*"), new String[]{"Cached", "Live"});
+        assertEquals(2, model.reads("Cached"));
+        assertEquals(4, model.reads("Live"));
+    }
+
+    @Test
+    public void exportLeavesMissingValuesNull() throws Exception {
+        final ViewInterceptor view = view(new AsyncTestModel("a"));
+
+        final AttributeTable table = view.exportAttributes(name("a"), new String[]{"Broken", "Live", "Unknown"});
+        assertEquals(1, table.size());
+        assertFalse(table.isFailed(0));
+        assertNull(table.getValue(0, 0));
+        assertEquals("Live:a", table.getValue(0, 1));
+        assertNull(table.getValue(0, 2));
+        assertEquals(1, table.getRow(0).size());
+    }
+
+    @Test
+    public void exportKeepsFailedRows() throws Exception {
+        final ViewInterceptor view = view(new AsyncTestModel("a", "failing"));
+
+        final AttributeTable table = view.exportAttributes(name("*"), new String[]{"Live"});
+        assertEquals(2, table.size());
+        final int failing = table.getNames().indexOf(name("failing"));
+        final int a = table.getNames().indexOf(name("a"));
+        assertTrue(table.isFailed(failing));
+        assertTrue(table.getFailure(failing) instanceof ReflectionException);
+        assertNull(table.getValue(failing, 0));
+        assertFalse(table.isFailed(a));
+        assertEquals("Live:a", table.getValue(a, 0));
+    }
+
+    @Test
+    public void exportWaitsForAllRowsUnderOneDeadline() throws Exception {
+        final AsyncTestModel model = new AsyncTestModel("a", "slow1", "slow2", "slow3", "slow4");
+        final ViewInterceptor view = view(model);
+
+        final long start = System.nanoTime();
+        final AttributeTable table = view.exportAttributes(name("*"), new String[]{"Live"});
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Four reads waited on one after another would take at least four timeouts.
+        assertTrue(elapsedMillis < 3 * model.getTimeoutPolicy().getTimeout(), "took " + elapsedMillis + " ms");
+        assertEquals(5, table.size());
+        for (int row = 0; row < table.size(); row++) {
+            final boolean slow = table.getName(row).getKeyProperty("name").startsWith("slow");
+            assertEquals(slow, table.isFailed(row));
+            if (slow) {
+                assertTrue(table.getFailure(row) instanceof TimeoutException);
+            }
+        }
+    }
+
+    @Test
+    public void exportIsReportedToListener() throws Exception {
+        final List<String> events = new ArrayList<>();
+        final InterceptorListener listener = new InterceptorListener() {
+            @Override
+            public void before(InterceptorOperation operation, ObjectName name) {
+                events.add("before " + operation + " " + name);
+            }
+
+            @Override
+            public void after(InterceptorOperation operation, ObjectName name, long elapsedNanos) {
+                events.add("after " + operation + " " + name);
+            }
+        };
+        final ViewInterceptor view = new ViewInterceptor(new AsyncTestModel("a"), new MBeanServerDelegate(),
+                MBeanServerFactory.newMBeanServer(), NoModelItemCache.INSTANCE, listener, null);
+
+        view.exportAttributes(name("*"), new String[]{"Live"});
+        assertEquals(Arrays.asList("before EXPORT_ATTRIBUTES test:name=*", "after EXPORT_ATTRIBUTES test:name=*"), events);
+    }
+
+    @Test
+    public void setAttributeWritesThroughTheItem() throws Exception {
+        final CounterModel model = new CounterModel("a");
+        final ViewInterceptor view = new ViewInterceptor(model, new MBeanServerDelegate(),
+                MBeanServerFactory.newMBeanServer());
+
+        view.setAttribute(name("a"), new Attribute("Count", 5));
+        assertEquals(5, model.counters.get(name("a")).count);
+        assertEquals(5, view.getAttribute(name("a"), "Count"));
+
+        assertThrows(AttributeNotFoundException.class, () -> view.setAttribute(name("a"), new Attribute("Zero", true)));
+        assertThrows(AttributeNotFoundException.class, () -> view.setAttribute(name("a"), new Attribute("Unknown", 1)));
+        assertThrows(InvalidAttributeValueException.class, () -> view.setAttribute(name("a"), new Attribute("Count", "5")));
+        assertThrows(InstanceNotFoundException.class, () -> view.setAttribute(name("missing"), new Attribute("Count", 1)));
+        assertThrows(RuntimeOperationsException.class, () -> view.setAttribute(name("a"), null));
+        assertEquals(5, model.counters.get(name("a")).count);
+    }
+
+    @Test
+    public void setAttributesReturnsWhatWasSet() throws Exception {
+        final CounterModel model = new CounterModel("a");
+        final ViewInterceptor view = new ViewInterceptor(model, new MBeanServerDelegate(),
+                MBeanServerFactory.newMBeanServer());
+
+        final AttributeList attributes = new AttributeList();
+        attributes.add(new Attribute("Count", 3));
+        attributes.add(new Attribute("Zero", true));
+        attributes.add(new Attribute("Label", 42));
+        attributes.add(new Attribute("Unknown", 1));
+        final AttributeList set = view.setAttributes(name("a"), attributes);
+
+        assertEquals(1, set.size());
+        assertEquals(new Attribute("Count", 3), set.asList().get(0));
+        assertEquals(3, model.counters.get(name("a")).count);
+        assertEquals("", model.counters.get(name("a")).label);
+        assertThrows(RuntimeOperationsException.class, () -> view.setAttributes(name("a"), null));
+    }
+
+    @Test
+    public void setAttributeInvalidatesCachedValue() throws Exception {
+        final CounterModel model = new CounterModel("a");
+        final ViewInterceptor view = new ViewInterceptor(model, new MBeanServerDelegate(),
+                MBeanServerFactory.newMBeanServer(), NoModelItemCache.INSTANCE, null, new AttributeValueCache());
+
+        assertEquals(0, view.getAttribute(name("a"), "Count"));
+        model.counters.get(name("a")).count = 1;
+        assertEquals(0, view.getAttribute(name("a"), "Count"));
+
+        view.setAttribute(name("a"), new Attribute("Count", 2));
+        assertEquals(2, view.getAttribute(name("a"), "Count"));
+    }
+
+    @Test
+    public void isRegisteredAsksTheModel() throws Exception {
+        final CounterModel model = new CounterModel("a");
+        final ViewInterceptor view = new ViewInterceptor(model, new MBeanServerDelegate(),
+                MBeanServerFactory.newMBeanServer());
+
+        assertTrue(view.isRegistered(name("a")));
+        assertFalse(view.isRegistered(name("missing")));
+    }
+
+    static ViewInterceptor view(AsyncTestModel model) {
+        return new ViewInterceptor(model, new MBeanServerDelegate(), MBeanServerFactory.newMBeanServer(),
+                NoModelItemCache.INSTANCE, null, new AttributeValueCache());
+    }
+
+    static ObjectName name(String name) throws MalformedObjectNameException {
+        return new ObjectName("test:name=" + name);
+    }
+
+    static final class Counter {
+        int count;
+        String label = "";
+    }
+
+    /**
+     * A model of counters with a cached writable count, a writable label and a read only flag,
+     * which counts item lookups.
+     */
+    static final class CounterModel extends AbstractModel<Counter> {
+        private static final Accessors<Counter> accessors = Accessors.<Counter>builder("counter", "A counter")
+                .withAttribute(new MBeanAttributeInfo("Count", "int", "The count", true, true, false,
+                                new ImmutableDescriptor(AttributeValueCache.MAX_AGE + "=60000")),
+                        int.class, c -> c.count, (c, v) -> c.count = (Integer) v)
+                .withAttribute("Label", String.class, "The label", c -> c.label, (c, v) -> c.label = (String) v)
+                .withAttribute(new MBeanAttributeInfo("Zero", "boolean", "True if zero", true, false, true),
+                        boolean.class, c -> c.count == 0, null)
+                .build();
+
+        final Map<ObjectName, Counter> counters = new LinkedHashMap<>();
+        int lookups;
+
+        CounterModel(String... names) throws MalformedObjectNameException {
+            super("test");
+            for (String n : names) {
+                counters.put(name(n), new Counter());
+            }
+        }
+
+        @Override
+        protected Iterable<Counter> getElements() {
+            return counters.values();
+        }
+
+        @Override
+        protected Accessors<Counter> getAccessors(Counter element) {
+            return accessors;
+        }
+
+        @Override
+        protected Map<String, String> generateObjectNameProperties(Counter element) {
+            for (Map.Entry<ObjectName, Counter> e : counters.entrySet()) {
+                if (e.getValue() == element) {
+                    return e.getKey().getKeyPropertyList();
+                }
+            }
+            throw new IllegalStateException("Unknown counter");
+        }
+
+        @Override
+        public ModelItem getItem(ObjectName name) throws InstanceNotFoundException {
+            lookups++;
+            final Counter counter = counters.get(name);
+            if (counter == null) {
+                throw new InstanceNotFoundException(name.toString());
+            }
+            return createItem(name, counter);
+        }
+
+        @Override
+        public void start(MBeanServerDelegate forwarder) {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public boolean isRunning() {
+            return true;
+        }
+
+        @Override
+        public Integer getMBeanCount() {
+            return counters.size();
+        }
+    }
+
+    /**
+     * An asynchronous model whose items have a cached attribute, a live one, and a cached one that
+     * always fails, and which counts the reads of each.  An item named "failing" fails every read,
+     * and items whose names start with "slow" never answer.
+     */
+    static final class AsyncTestModel implements AsyncModel {
+        private final Map<ObjectName, AsyncItem> items = new LinkedHashMap<>();
+        private final Map<String, AtomicInteger> reads = new ConcurrentHashMap<>();
+        private final TimeoutPolicy timeoutPolicy = TimeoutPolicy.ofMillis(200);
+
+        AsyncTestModel(String... names) throws MalformedObjectNameException {
+            for (String n : names) {
+                final ObjectName name = name(n);
+                items.put(name, new AsyncItem(name));
+            }
+        }
+
+        int reads(String attribute) {
+            final AtomicInteger count = reads.get(attribute);
+            return (count == null) ? 0 : count.get();
+        }
+
+        @Override
+        public TimeoutPolicy getTimeoutPolicy() {
+            return timeoutPolicy;
+        }
+
+        @Override
+        public CompletionStage<ModelItem> getItemAsync(ObjectName name) {
+            final CompletableFuture<ModelItem> future = new CompletableFuture<>();
+            final AsyncItem item = items.get(name);
+            if (item == null) {
+                future.completeExceptionally(new InstanceNotFoundException(name.toString()));
+            } else {
+                future.complete(item);
+            }
+            return future;
+        }
+
+        @Override
+        public void start(MBeanServerDelegate forwarder) {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public boolean isRunning() {
+            return true;
+        }
+
+        @Override
+        public Set<ObjectInstance> queryMBeans(ObjectName name, Function<ObjectName, Boolean> queryFunction) {
+            return queryNames(name, queryFunction).stream()
+                    .map(n -> items.get(n).getObjectInstance())
+                    .collect(Collectors.toSet());
+        }
+
+        @Override
+        public Set<ObjectName> queryNames(ObjectName name, Function<ObjectName, Boolean> queryFunction) {
+            return items.keySet().stream()
+                    .filter(n -> name == null || name.apply(n))
+                    .filter(queryFunction::apply)
+                    .collect(Collectors.toSet());
+        }
+
+        @Override
+        public String getDefaultDomain() {
+            return "test";
+        }
+
+        @Override
+        public String[] getDomains() {
+            return new String[]{"test"};
+        }
+
+        @Override
+        public Integer getMBeanCount() {
+            return items.size();
+        }
+
+        @Override
+        public Object invoke(ModelItem item, String operationName, Object[] params, String[] signature) {
+            return null;
+        }
+
+        final class AsyncItem implements AsyncModelItem {
+            private final ObjectName name;
+
+            AsyncItem(ObjectName name) {
+                this.name = name;
+            }
+
+            @Override
+            public CompletionStage<Object> getAttributeAsync(String attribute) {
+                reads.computeIfAbsent(attribute, a -> new AtomicInteger()).incrementAndGet();
+                final CompletableFuture<Object> future = new CompletableFuture<>();
+                switch (attribute) {
+                    case "Cached":
+                    case "Live":
+                        future.complete(attribute + ":" + name.getKeyProperty("name"));
+                        break;
+                    case "Broken":
+                        future.completeExceptionally(new MBeanException(new IllegalStateException(attribute)));
+                        break;
+                    default:
+                        future.completeExceptionally(new AttributeNotFoundException(attribute));
+                }
+                return future;
+            }
+
+            @Override
+            public CompletionStage<AttributeList> getAttributesAsync(String[] attributes) {
+                final String n = name.getKeyProperty("name");
+                if (n.equals("failing")) {
+                    final CompletableFuture<AttributeList> future = new CompletableFuture<>();
+                    future.completeExceptionally(new ReflectionException(new IllegalStateException(n)));
+                    return future;
+                }
+                if (n.startsWith("slow")) {
+                    return new CompletableFuture<>();
+                }
+                return AsyncModelItem.super.getAttributesAsync(attributes);
+            }
+
+            @Override
+            public CompletionStage<Object> invokeAsync(String operationName, Object[] params, String[] signature) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public ObjectName getObjectName() {
+                return name;
+            }
+
+            @Override
+            public ObjectInstance getObjectInstance() {
+                return new ObjectInstance(name, "test");
+            }
+
+            @Override
+            public MBeanInfo getMBeanInfo() {
+                final MBeanAttributeInfo[] attributes = {
+                        attribute("Cached", 60000L),
+                        attribute("Live", 0L),
+                        attribute("Broken", 60000L)
+                };
+                return new MBeanInfo("test", "test", attributes, null, null, null);
+            }
+
+            @Override
+            public boolean isInstanceOf(String className) {
+                return "test".equals(className);
+            }
+
+            private MBeanAttributeInfo attribute(String attribute, long maxAge) {
+                final DescriptorSupport descriptor = new DescriptorSupport();
+                if (maxAge > 0) {
+                    descriptor.setField(AttributeValueCache.MAX_AGE, maxAge);
+                }
+                return new MBeanAttributeInfo(attribute, "java.lang.String", attribute, true, false, false, descriptor);
+            }
+        }
+    }
+}